@@ -9,18 +9,72 @@ import android.view.animation.DecelerateInterpolator;
 
 import java.lang.ref.WeakReference;
 
-public class AnimationHandler extends Handler {
+public class AnimationHandler extends Handler implements AnimationTicker.FrameListener {
+
+    // cached, AnimationMsg.values() creates a new array on every call
+    private static final AnimationMsg[] MSG_TYPES = AnimationMsg.values();
+    // a fling stops if the rest of the distance is smaller than this
+    private static final float FLING_STOP_DEGREES = 0.1f;
+    // a spring rests if the distance and the velocity per second are smaller than this
+    private static final float SPRING_REST_DEGREES = 0.1f;
+    // damping ratios closer to 1 than this are solved as critically damped
+    private static final double SPRING_CRITICAL_TOLERANCE = 1e-3;
+    // frames later than this are integrated as if they were on time, e.g. after a stall of the main thread
+    private static final float SPRING_MAX_FRAME_TIME = 0.1f;
+    private static final int DEFAULT_VALUE_QUEUE_CAPACITY = 16;
+    // shared by all views, so their lookup tables are shared too
+    private static final TimeInterpolator DEFAULT_LENGTH_CHANGE_INTERPOLATOR = new DecelerateInterpolator();
+    private static final TimeInterpolator DEFAULT_VALUE_INTERPOLATOR = new AccelerateDecelerateInterpolator();
 
     private final WeakReference<CircleProgressView> mCircleViewWeakReference;
     // Spin bar length in degree at start of animation
     private float mSpinningBarLengthStart;
     private long mAnimationStartTime;
     private long mLengthChangeAnimationStartTime;
-    private TimeInterpolator mLengthChangeInterpolator = new DecelerateInterpolator();
+    // frame time of the last spinner step, used for time based spinning
+    private long mLastSpinnerFrameTime;
+    private TimeInterpolator mLengthChangeInterpolator = DEFAULT_LENGTH_CHANGE_INTERPOLATOR;
     // The interpolator for value animations
-    private TimeInterpolator mInterpolator = new AccelerateDecelerateInterpolator();
+    private TimeInterpolator mInterpolator = DEFAULT_VALUE_INTERPOLATOR;
+    // the interpolators set by the user, mInterpolator and mLengthChangeInterpolator may be their lookup tables
+    private TimeInterpolator mValueInterpolatorSource = DEFAULT_VALUE_INTERPOLATOR;
+    private TimeInterpolator mLengthChangeInterpolatorSource = DEFAULT_LENGTH_CHANGE_INTERPOLATOR;
+    private boolean mInterpolatorLookupTablesEnabled = false;
     private double mLengthChangeAnimationDuration;
+    // spring animation of the value
+    private boolean mSpringEnabled = false;
+    private float mSpringStiffness = 200f;
+    private float mSpringDampingRatio = 1f;
+    // velocity of the value in value units per second, kept if the target changes
+    private float mSpringVelocity = 0;
+    private long mLastSpringFrameTime;
+    // queued animated values, see ValueQueuePolicy
+    private ValueQueuePolicy mValueQueuePolicy = ValueQueuePolicy.LATEST_WINS;
+    private ValueQueue mValueQueue = new ValueQueue(DEFAULT_VALUE_QUEUE_CAPACITY);
+    private long mCoalesceWindow = 100;
+    // frame time when the last coalesced value was applied
+    private long mLastCoalescedValueTime = Long.MIN_VALUE / 2;
+    // duration of the running value animation
+    private double mRunningAnimationDuration;
+    // durations of the sent SET_VALUE_ANIMATED messages in the order of the messages, a ring buffer which grows if full
+    private long[] mMessageDurations = new long[4];
+    private int mMessageDurationsHead = 0;
+    private int mMessageDurationsSize = 0;
     private long mFrameStartTime = 0;
+    // Timestamp of the frame currently processed, used for all interpolations.
+    private long mFrameTime = 0;
+    // true to drive ticks by the shared frame clock, false to fall back to delayed TICK messages
+    private boolean mUseFrameClock = true;
+    // registration state at the AnimationTicker, see AnimationTicker.FrameListener
+    private boolean mTickerRegistered = false;
+    // true if a published value has to be applied on the next frame
+    private boolean mPublishedValueRequested = false;
+    // true if the value of a seek move has to be applied on the next frame
+    private boolean mSeekValueRequested = false;
+    // while suspended no ticks are scheduled, requested ticks are deferred till resume
+    private boolean mSuspended = false;
+    private boolean mTickDeferred = false;
+    private long mSuspendTime;
 
     AnimationHandler(CircleProgressView circleView) {
         super(circleView.getContext().getMainLooper());
@@ -34,7 +88,8 @@ public class AnimationHandler extends Handler {
      * @param mInterpolator the m interpolator
      */
     public void setValueInterpolator(TimeInterpolator mInterpolator) {
-        this.mInterpolator = mInterpolator;
+        mValueInterpolatorSource = mInterpolator;
+        this.mInterpolator = mInterpolatorLookupTablesEnabled ? LookupTableInterpolator.of(mInterpolator) : mInterpolator;
     }
 
 
@@ -44,7 +99,211 @@ public class AnimationHandler extends Handler {
      * @param mLengthChangeInterpolator the m length change interpolator
      */
     public void setLengthChangeInterpolator(TimeInterpolator mLengthChangeInterpolator) {
-        this.mLengthChangeInterpolator = mLengthChangeInterpolator;
+        mLengthChangeInterpolatorSource = mLengthChangeInterpolator;
+        this.mLengthChangeInterpolator = mInterpolatorLookupTablesEnabled ? LookupTableInterpolator.of(mLengthChangeInterpolator) : mLengthChangeInterpolator;
+    }
+
+    /**
+     * Enables lookup tables for the value and length change interpolators, see {@link LookupTableInterpolator}.
+     *
+     * @param _enabled true to sample the interpolators into tables.
+     */
+    public void setInterpolatorLookupTablesEnabled(boolean _enabled) {
+        mInterpolatorLookupTablesEnabled = _enabled;
+        setValueInterpolator(mValueInterpolatorSource);
+        setLengthChangeInterpolator(mLengthChangeInterpolatorSource);
+    }
+
+    public boolean isInterpolatorLookupTablesEnabled() {
+        return mInterpolatorLookupTablesEnabled;
+    }
+
+    /**
+     * Enables spring animations for values. See {@link CircleProgressView#setSpringAnimationEnabled(boolean)}.
+     */
+    public void setSpringEnabled(boolean _springEnabled) {
+        mSpringEnabled = _springEnabled;
+        mSpringVelocity = 0;
+    }
+
+    public boolean isSpringEnabled() {
+        return mSpringEnabled;
+    }
+
+    public float getSpringStiffness() {
+        return mSpringStiffness;
+    }
+
+    public void setSpringStiffness(float _stiffness) {
+        if (_stiffness <= 0) {
+            throw new IllegalArgumentException("stiffness must be > 0!");
+        }
+        mSpringStiffness = _stiffness;
+    }
+
+    public float getSpringDampingRatio() {
+        return mSpringDampingRatio;
+    }
+
+    public void setSpringDampingRatio(float _dampingRatio) {
+        if (_dampingRatio <= 0) {
+            throw new IllegalArgumentException("dampingRatio must be > 0!");
+        }
+        mSpringDampingRatio = _dampingRatio;
+    }
+
+    public ValueQueuePolicy getValueQueuePolicy() {
+        return mValueQueuePolicy;
+    }
+
+    /**
+     * Sets how animated values are applied while an animation is running, see {@link ValueQueuePolicy}.
+     * Queued values are discarded.
+     */
+    public void setValueQueuePolicy(ValueQueuePolicy _valueQueuePolicy) {
+        mValueQueuePolicy = _valueQueuePolicy;
+        mValueQueue.clear();
+    }
+
+    public int getValueQueueCapacity() {
+        return mValueQueue.getCapacity();
+    }
+
+    /**
+     * Sets the max number of queued values for {@link ValueQueuePolicy#SEQUENTIAL}. Queued values are discarded.
+     */
+    public void setValueQueueCapacity(int _capacity) {
+        mValueQueue = new ValueQueue(_capacity);
+    }
+
+    public long getCoalesceWindow() {
+        return mCoalesceWindow;
+    }
+
+    /**
+     * Sets the time in ms within which animated values are merged for {@link ValueQueuePolicy#COALESCE}.
+     */
+    public void setCoalesceWindow(long _coalesceWindow) {
+        if (_coalesceWindow < 0) {
+            throw new IllegalArgumentException("coalesceWindow must be >= 0!");
+        }
+        mCoalesceWindow = _coalesceWindow;
+    }
+
+    /**
+     * Enables or disables the frame clock. If enabled, the animation is ticked by the
+     * {@link AnimationTicker} shared by all views and interpolated with the frame timestamp,
+     * otherwise delayed TICK messages are used.
+     *
+     * @param _useFrameClock true to tick on every displayed frame.
+     */
+    public void setFrameClockEnabled(boolean _useFrameClock) {
+        if (mUseFrameClock == _useFrameClock) {
+            return;
+        }
+        boolean tickPending = isTickScheduled() || mTickDeferred;
+        cancelTick();
+        mUseFrameClock = _useFrameClock;
+        CircleProgressView circleView = mCircleViewWeakReference.get();
+        if (tickPending && circleView != null) {
+            scheduleTick(circleView);
+        }
+    }
+
+    public boolean isFrameClockEnabled() {
+        return mUseFrameClock;
+    }
+
+    /**
+     * Suspends or resumes ticking. While suspended, no ticks are scheduled and the
+     * animation does not advance. On resume, all running animations continue with the phase
+     * they had when they were suspended.
+     *
+     * @param _suspended true to suspend, false to resume.
+     */
+    void setSuspended(boolean _suspended) {
+        if (mSuspended == _suspended) {
+            return;
+        }
+        if (_suspended) {
+            boolean tickPending = isTickScheduled();
+            cancelTick();
+            mTickDeferred = tickPending;
+            mSuspendTime = SystemClock.uptimeMillis();
+            mSuspended = true;
+        } else {
+            mSuspended = false;
+            long now = SystemClock.uptimeMillis();
+            mAnimationStartTime = calcResumedTime(mAnimationStartTime, now);
+            mLengthChangeAnimationStartTime = calcResumedTime(mLengthChangeAnimationStartTime, now);
+            mLastSpinnerFrameTime = calcResumedTime(mLastSpinnerFrameTime, now);
+            mLastSpringFrameTime = calcResumedTime(mLastSpringFrameTime, now);
+            CircleProgressView circleView = mCircleViewWeakReference.get();
+            if (circleView != null) {
+                circleView.getDrawable().offsetAnimationStartTimes(now - mSuspendTime);
+            }
+            if (mTickDeferred && circleView != null) {
+                mFrameStartTime = now;
+                scheduleTick(circleView);
+            }
+            mTickDeferred = false;
+        }
+    }
+
+    /**
+     * Moves a timestamp by the time the handler was suspended.
+     * Timestamps set while suspended are moved to the resume time.
+     */
+    private long calcResumedTime(long _time, long _now) {
+        return _time < mSuspendTime ? _time + (_now - mSuspendTime) : _now;
+    }
+
+    boolean isSuspended() {
+        return mSuspended;
+    }
+
+    /**
+     * Sends a SET_VALUE or SET_VALUE_ANIMATED message. The values are stored in the int
+     * arguments of a pooled message, so no objects are allocated.
+     *
+     * @param _msgType   The message type.
+     * @param _valueFrom The start value of the animation.
+     * @param _valueTo   The end value of the animation.
+     */
+    void sendValueMessage(AnimationMsg _msgType, float _valueFrom, float _valueTo) {
+        sendMessage(obtainMessage(_msgType.ordinal(), Float.floatToRawIntBits(_valueFrom), Float.floatToRawIntBits(_valueTo)));
+    }
+
+    /**
+     * Sends a SET_VALUE_ANIMATED message with its animation duration. The duration is kept by the handler
+     * till the message is handled, so a running animation is not affected by the duration of a later value.
+     *
+     * @param _valueFrom The start value of the animation.
+     * @param _valueTo   The end value of the animation.
+     * @param _duration  The duration of the animation in milliseconds.
+     */
+    void sendValueAnimatedMessage(float _valueFrom, float _valueTo, long _duration) {
+        if (mMessageDurationsSize == mMessageDurations.length) {
+            long[] durations = new long[mMessageDurations.length * 2];
+            for (int i = 0; i < mMessageDurationsSize; i++) {
+                durations[i] = mMessageDurations[(mMessageDurationsHead + i) % mMessageDurations.length];
+            }
+            mMessageDurations = durations;
+            mMessageDurationsHead = 0;
+        }
+        mMessageDurations[(mMessageDurationsHead + mMessageDurationsSize) % mMessageDurations.length] = _duration;
+        mMessageDurationsSize++;
+        sendValueMessage(AnimationMsg.SET_VALUE_ANIMATED, _valueFrom, _valueTo);
+    }
+
+    /**
+     * @return The duration of the oldest SET_VALUE_ANIMATED message, see {@link #sendValueAnimatedMessage(float, float, long)}.
+     */
+    private long pollMessageDuration() {
+        long duration = mMessageDurations[mMessageDurationsHead];
+        mMessageDurationsHead = (mMessageDurationsHead + 1) % mMessageDurations.length;
+        mMessageDurationsSize--;
+        return duration;
     }
 
     @Override
@@ -53,14 +312,101 @@ public class AnimationHandler extends Handler {
         if (circleView == null) {
             return;
         }
-        AnimationMsg msgType = AnimationMsg.values()[msg.what];
+        AnimationMsg msgType = MSG_TYPES[msg.what];
+        long duration;
+        if (msgType == AnimationMsg.SET_VALUE_ANIMATED) {
+            duration = pollMessageDuration();
+            // the latest duration is also used for published values
+            circleView.mAnimationDuration = duration;
+        } else {
+            duration = (long) circleView.mAnimationDuration;
+        }
         if (msgType == AnimationMsg.TICK) {
             removeMessages(AnimationMsg.TICK.ordinal()); // necessary to remove concurrent ticks.
         }
 
+        mFrameStartTime = SystemClock.uptimeMillis();
+        mFrameTime = mFrameStartTime;
+        if (msgType == AnimationMsg.PUBLISH_VALUE) {
+            if (mUseFrameClock) {
+                // coalesce all published values to one update on the next frame
+                mPublishedValueRequested = true;
+                scheduleTick(circleView);
+            } else {
+                applyPublishedValue(circleView);
+            }
+            return;
+        }
+        handleAnimationMsg(circleView, msgType, Float.intBitsToFloat(msg.arg1), Float.intBitsToFloat(msg.arg2), duration);
+        if (msgType == AnimationMsg.TICK) {
+            applyCoalescedValue(circleView);
+            calcNextAnimationValues(circleView);
+        }
+    }
+
+    @Override
+    public void doAnimationFrame(long _frameTimeMillis) {
+        CircleProgressView circleView = mCircleViewWeakReference.get();
+        if (circleView == null) {
+            AnimationTicker.getInstance().unregister(this);
+            return;
+        }
+        mFrameStartTime = SystemClock.uptimeMillis();
+        mFrameTime = _frameTimeMillis;
+        if (mPublishedValueRequested) {
+            applyPublishedValue(circleView);
+        }
+        if (mSeekValueRequested) {
+            applySeekValue(circleView);
+        }
+        handleAnimationMsg(circleView, AnimationMsg.TICK, 0, 0, 0);
+        applyCoalescedValue(circleView);
+        calcNextAnimationValues(circleView);
+    }
+
+    @Override
+    public boolean isTickerRegistered() {
+        return mTickerRegistered;
+    }
+
+    @Override
+    public void setTickerRegistered(boolean _registered) {
+        mTickerRegistered = _registered;
+    }
+
+    /**
+     * Requests a tick for the ring and segment animations, see {@link CircleProgressRing#setValueAnimated(float, long)}.
+     */
+    void requestTick() {
+        CircleProgressView circleView = mCircleViewWeakReference.get();
+        if (circleView == null) {
+            return;
+        }
+        mFrameStartTime = SystemClock.uptimeMillis();
+        scheduleTick(circleView);
+    }
+
+    /**
+     * Advances the value animations of the rings and segments in the same tick as the state machine of the view.
+     * The state machine cancels the ticks if it is idle, so they are scheduled again while they animate.
+     */
+    private void calcNextAnimationValues(CircleProgressView circleView) {
+        CircleProgressDrawable drawable = circleView.getDrawable();
+        if (!drawable.hasValueAnimations()) {
+            return;
+        }
+        if (drawable.calcNextAnimationValues(mFrameTime, mInterpolator)) {
+            scheduleTick(circleView);
+        }
+        circleView.invalidate();
+    }
+
+    /**
+     * @param duration The duration of a SET_VALUE_ANIMATED value animation in milliseconds, ignored by other messages.
+     */
+    private void handleAnimationMsg(CircleProgressView circleView, AnimationMsg msgType, float valueFrom, float valueTo, long duration) {
         //if (msgType != AnimationMsg.TICK)
         //    Log.d("JaGr", TAG + "LOG00099: State:" + circleView.mAnimationState + "     Received: " + msgType);
-        mFrameStartTime = SystemClock.uptimeMillis();
         switch (circleView.mAnimationState) {
 
 
@@ -75,14 +421,19 @@ public class AnimationHandler extends Handler {
                         //IGNORE not spinning
                         break;
                     case SET_VALUE:
-                        setValue(msg, circleView);
+                        setValue(valueFrom, circleView);
                         break;
                     case SET_VALUE_ANIMATED:
-
-                        enterSetValueAnimated(msg, circleView);
+                        if (queueValue(circleView, valueTo, duration)) {
+                            break;
+                        }
+                        enterSetValueAnimated(valueFrom, valueTo, duration, circleView);
+                        break;
+                    case START_FLING:
+                        enterFling(valueFrom, valueTo, circleView);
                         break;
                     case TICK:
-                        removeMessages(AnimationMsg.TICK.ordinal()); // remove old ticks
+                        cancelTick(); // remove old ticks
                         //IGNORE nothing to do
                         break;
                 }
@@ -98,19 +449,17 @@ public class AnimationHandler extends Handler {
 
                         break;
                     case SET_VALUE:
-                        setValue(msg, circleView);
+                        setValue(valueFrom, circleView);
                         break;
                     case SET_VALUE_ANIMATED:
-                        enterEndSpinningStartAnimating(circleView, msg);
+                    case START_FLING:
+                        enterEndSpinningStartAnimating(circleView, valueTo, duration);
                         break;
                     case TICK:
                         // set length
 
                         float length_delta = circleView.mSpinningBarLengthCurrent - circleView.mSpinningBarLengthOrig;
-                        float t = (float) ((System.currentTimeMillis() - mLengthChangeAnimationStartTime)
-                                / mLengthChangeAnimationDuration);
-                        t = t > 1.0f ? 1.0f : t;
-                        float interpolatedRatio = mLengthChangeInterpolator.getInterpolation(t);
+                        float interpolatedRatio = mLengthChangeInterpolator.getInterpolation(calcLengthChangeProgress());
 
                         if (Math.abs(length_delta) < 1) {
                             //spinner length is within bounds
@@ -123,12 +472,13 @@ public class AnimationHandler extends Handler {
                             circleView.mSpinningBarLengthCurrent = (mSpinningBarLengthStart - ((mSpinningBarLengthStart - circleView.mSpinningBarLengthOrig) * interpolatedRatio));
                         }
 
-                        circleView.mCurrentSpinnerDegreeValue += circleView.mSpinSpeed; // spin speed value (in degree)
+                        circleView.mCurrentSpinnerDegreeValue += calcSpinnerStep(circleView); // spin speed value (in degree)
 
                         if (circleView.mCurrentSpinnerDegreeValue > 360) {
-                            circleView.mCurrentSpinnerDegreeValue = 0;
+                            // keep the phase, a time based step may be larger than a few degrees
+                            circleView.mCurrentSpinnerDegreeValue %= 360;
                         }
-                        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+                        scheduleTick(circleView);
                         circleView.invalidate();
                         break;
                 }
@@ -142,36 +492,36 @@ public class AnimationHandler extends Handler {
                         if (circleView.mAnimationStateChangedListener != null) {
                             circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
                         }
-                        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+                        scheduleTick(circleView);
 
                         break;
                     case STOP_SPINNING:
                         //IGNORE already stopping
                         break;
                     case SET_VALUE:
-                        setValue(msg, circleView);
+                        setValue(valueFrom, circleView);
                         break;
                     case SET_VALUE_ANIMATED:
-                        enterEndSpinningStartAnimating(circleView, msg);
+                    case START_FLING:
+                        enterEndSpinningStartAnimating(circleView, valueTo, duration);
 
                         break;
                     case TICK:
 
-                        float t = (float) ((System.currentTimeMillis() - mLengthChangeAnimationStartTime)
-                                / mLengthChangeAnimationDuration);
-                        t = t > 1.0f ? 1.0f : t;
-                        float interpolatedRatio = mLengthChangeInterpolator.getInterpolation(t);
+                        float interpolatedRatio = mLengthChangeInterpolator.getInterpolation(calcLengthChangeProgress());
                         circleView.mSpinningBarLengthCurrent = (mSpinningBarLengthStart) * (1f - interpolatedRatio);
 
-                        circleView.mCurrentSpinnerDegreeValue += circleView.mSpinSpeed; // spin speed value (not in percent)
+                        circleView.mCurrentSpinnerDegreeValue += calcSpinnerStep(circleView); // spin speed value (not in percent)
                         if (circleView.mSpinningBarLengthCurrent < 0.01f) {
                             //end here, spinning finished
                             circleView.mAnimationState = AnimationState.IDLE;
                             if (circleView.mAnimationStateChangedListener != null) {
                                 circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
                             }
+                            cancelTick();
+                        } else {
+                            scheduleTick(circleView);
                         }
-                        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
                         circleView.invalidate();
                         break;
                 }
@@ -190,32 +540,32 @@ public class AnimationHandler extends Handler {
                         break;
                     case SET_VALUE:
                         circleView.mDrawBarWhileSpinning = false;
-                        setValue(msg, circleView);
+                        setValue(valueFrom, circleView);
 
                         break;
                     case SET_VALUE_ANIMATED:
+                    case START_FLING:
                         circleView.mValueFrom = 0; // start from zero after spinning
-                        circleView.mValueTo = ((float[]) msg.obj)[1];
-                        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+                        circleView.mValueTo = valueTo;
+                        mRunningAnimationDuration = duration;
+                        scheduleTick(circleView);
 
                         break;
                     case TICK:
+                        float spinnerStep = calcSpinnerStep(circleView);
                         //shrink spinner till it has its original length
                         if (circleView.mSpinningBarLengthCurrent > circleView.mSpinningBarLengthOrig && !circleView.mDrawBarWhileSpinning) {
                             //spinner to long, --> shrink
-                            float t = (float) ((System.currentTimeMillis() - mLengthChangeAnimationStartTime)
-                                    / mLengthChangeAnimationDuration);
-                            t = t > 1.0f ? 1.0f : t;
-                            float interpolatedRatio = mLengthChangeInterpolator.getInterpolation(t);
+                            float interpolatedRatio = mLengthChangeInterpolator.getInterpolation(calcLengthChangeProgress());
                             circleView.mSpinningBarLengthCurrent = (mSpinningBarLengthStart) * (1f - interpolatedRatio);
                         }
 
                         // move spinner for spin speed value (not in percent)
-                        circleView.mCurrentSpinnerDegreeValue += circleView.mSpinSpeed;
+                        circleView.mCurrentSpinnerDegreeValue += spinnerStep;
 
                         //if the start of the spinner reaches zero, start animating the value
                         if (circleView.mCurrentSpinnerDegreeValue > 360 && !circleView.mDrawBarWhileSpinning) {
-                            mAnimationStartTime = System.currentTimeMillis();
+                            mAnimationStartTime = mFrameTime;
                             circleView.mDrawBarWhileSpinning = true;
                             initReduceAnimation(circleView);
                             if (circleView.mAnimationStateChangedListener != null) {
@@ -226,13 +576,10 @@ public class AnimationHandler extends Handler {
                         //value is already animating, calc animation value and reduce spinner
                         if (circleView.mDrawBarWhileSpinning) {
                             circleView.mCurrentSpinnerDegreeValue = 360;
-                            circleView.mSpinningBarLengthCurrent -= circleView.mSpinSpeed;
+                            circleView.mSpinningBarLengthCurrent -= spinnerStep;
                             calcNextAnimationValue(circleView);
 
-                            float t = (float) ((System.currentTimeMillis() - mLengthChangeAnimationStartTime)
-                                    / mLengthChangeAnimationDuration);
-                            t = t > 1.0f ? 1.0f : t;
-                            float interpolatedRatio = mLengthChangeInterpolator.getInterpolation(t);
+                            float interpolatedRatio = mLengthChangeInterpolator.getInterpolation(calcLengthChangeProgress());
                             circleView.mSpinningBarLengthCurrent = (mSpinningBarLengthStart) * (1f - interpolatedRatio);
                         }
 
@@ -240,6 +587,9 @@ public class AnimationHandler extends Handler {
                         if (circleView.mSpinningBarLengthCurrent < 0.1) {
                             //spinning finished, start animating the current value
                             circleView.mAnimationState = AnimationState.ANIMATING;
+                            // a spring continues from now, not from the last spring animation
+                            mLastSpringFrameTime = mFrameTime;
+                            mSpringVelocity = 0;
                             if (circleView.mAnimationStateChangedListener != null) {
                                 circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
                             }
@@ -250,7 +600,7 @@ public class AnimationHandler extends Handler {
                         } else {
                             circleView.invalidate();
                         }
-                        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+                        scheduleTick(circleView);
                         break;
                 }
 
@@ -265,26 +615,89 @@ public class AnimationHandler extends Handler {
                         //Ignore, not spinning
                         break;
                     case SET_VALUE:
-                        setValue(msg, circleView);
+                        setValue(valueFrom, circleView);
                         break;
                     case SET_VALUE_ANIMATED:
-                        mAnimationStartTime = System.currentTimeMillis();
-                        //restart animation from current value
+                        if (queueValue(circleView, valueTo, duration)) {
+                            break;
+                        }
+                        mAnimationStartTime = mFrameTime;
+                        mRunningAnimationDuration = duration;
+                        //restart animation from current value, a spring keeps its velocity
                         circleView.mValueFrom = circleView.mCurrentValue;
-                        circleView.mValueTo = ((float[]) msg.obj)[1];
+                        circleView.mValueTo = valueTo;
 
+                        break;
+                    case START_FLING:
+                        enterFling(valueFrom, valueTo, circleView);
                         break;
                     case TICK:
-                        if (calcNextAnimationValue(circleView)) {
+                        boolean finished = mSpringEnabled ? calcNextSpringValue(circleView) : calcNextAnimationValue(circleView);
+                        if (finished && startNextQueuedValue(circleView)) {
+                            scheduleTick(circleView);
+                        } else if (finished) {
                             //animation finished
                             circleView.mAnimationState = AnimationState.IDLE;
                             if (circleView.mAnimationStateChangedListener != null) {
                                 circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
                             }
                             circleView.mCurrentValue = circleView.mValueTo;
+                            mSpringVelocity = 0;
+                            cancelTick();
+                        } else {
+                            scheduleTick(circleView);
                         }
-                        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
-                        circleView.invalidate();
+                        circleView.invalidateValueChange();
+                        break;
+                }
+
+                break;
+            case FLINGING:
+                switch (msgType) {
+
+                    case START_SPINNING:
+                        enterSpinning(circleView);
+                        break;
+                    case STOP_SPINNING:
+                        //Ignore, not spinning
+                        break;
+                    case SET_VALUE:
+                        setValue(valueFrom, circleView);
+                        break;
+                    case SET_VALUE_ANIMATED:
+                        if (queueValue(circleView, valueTo, duration)) {
+                            break;
+                        }
+                        // enterSetValueAnimated replaces mValueTo, keep the end value of the fling
+                        float flingEnd = circleView.mValueTo;
+                        // continue from the current value of the fling
+                        enterSetValueAnimated(circleView.mCurrentValue, valueTo, duration, circleView);
+                        // the velocity of the decay is the rest of the distance divided by the time constant
+                        mSpringVelocity = (flingEnd - circleView.mCurrentValue) * 1000f / circleView.mFlingTimeConstant;
+                        break;
+                    case START_FLING:
+                        enterFling(valueFrom, valueTo, circleView);
+                        break;
+                    case TICK:
+                        boolean flingFinished = calcNextFlingValue(circleView);
+                        if (flingFinished && startNextQueuedValue(circleView)) {
+                            circleView.mAnimationState = AnimationState.ANIMATING;
+                            if (circleView.mAnimationStateChangedListener != null) {
+                                circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
+                            }
+                            scheduleTick(circleView);
+                        } else if (flingFinished) {
+                            //fling finished
+                            circleView.mAnimationState = AnimationState.IDLE;
+                            if (circleView.mAnimationStateChangedListener != null) {
+                                circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
+                            }
+                            circleView.mCurrentValue = circleView.mValueTo;
+                            cancelTick();
+                        } else {
+                            scheduleTick(circleView);
+                        }
+                        circleView.invalidateValueChange();
                         break;
                 }
 
@@ -293,29 +706,44 @@ public class AnimationHandler extends Handler {
         }
     }
 
-    private void enterSetValueAnimated(Message msg, CircleProgressView circleView) {
-        circleView.mValueFrom = ((float[]) msg.obj)[0];
-        circleView.mValueTo = ((float[]) msg.obj)[1];
-        mAnimationStartTime = System.currentTimeMillis();
+    private void enterSetValueAnimated(float valueFrom, float valueTo, long duration, CircleProgressView circleView) {
+        circleView.mValueFrom = valueFrom;
+        circleView.mValueTo = valueTo;
+        mAnimationStartTime = mFrameTime;
+        mRunningAnimationDuration = duration;
+        mLastSpringFrameTime = mFrameTime;
+        mSpringVelocity = 0;
         circleView.mAnimationState = AnimationState.ANIMATING;
         if (circleView.mAnimationStateChangedListener != null) {
             circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
         }
-        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+        scheduleTick(circleView);
     }
 
-    private void enterEndSpinningStartAnimating(CircleProgressView circleView, Message msg) {
+    private void enterFling(float valueFrom, float valueTo, CircleProgressView circleView) {
+        circleView.mValueFrom = valueFrom;
+        circleView.mValueTo = valueTo;
+        mAnimationStartTime = mFrameTime;
+        circleView.mAnimationState = AnimationState.FLINGING;
+        if (circleView.mAnimationStateChangedListener != null) {
+            circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
+        }
+        scheduleTick(circleView);
+    }
+
+    private void enterEndSpinningStartAnimating(CircleProgressView circleView, float valueTo, long duration) {
         circleView.mAnimationState = AnimationState.END_SPINNING_START_ANIMATING;
         if (circleView.mAnimationStateChangedListener != null) {
             circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
         }
         circleView.mValueFrom = 0; // start from zero after spinning
-        circleView.mValueTo = ((float[]) msg.obj)[1];
+        circleView.mValueTo = valueTo;
+        mRunningAnimationDuration = duration;
 
-        mLengthChangeAnimationStartTime = System.currentTimeMillis();
+        mLengthChangeAnimationStartTime = mFrameTime;
         mSpinningBarLengthStart = circleView.mSpinningBarLengthCurrent;
 
-        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+        scheduleTick(circleView);
 
     }
 
@@ -325,35 +753,35 @@ public class AnimationHandler extends Handler {
         if (circleView.mAnimationStateChangedListener != null) {
             circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
         }
-        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+        scheduleTick(circleView);
     }
 
     private void initReduceAnimation(CircleProgressView circleView) {
         float degreesTillFinish = circleView.mSpinningBarLengthCurrent;
-        float stepsTillFinish = degreesTillFinish / circleView.mSpinSpeed;
-        mLengthChangeAnimationDuration = (stepsTillFinish * circleView.mFrameDelayMillis) * 2f;
+        mLengthChangeAnimationDuration = calcLengthChangeDuration(circleView, degreesTillFinish);
 
-        mLengthChangeAnimationStartTime = System.currentTimeMillis();
+        mLengthChangeAnimationStartTime = mFrameTime;
         mSpinningBarLengthStart = circleView.mSpinningBarLengthCurrent;
     }
 
     private void enterSpinning(CircleProgressView circleView) {
+        mValueQueue.clear();
         circleView.mAnimationState = AnimationState.SPINNING;
         if (circleView.mAnimationStateChangedListener != null) {
             circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
         }
-        circleView.mSpinningBarLengthCurrent = (360f / circleView.mMaxValue * circleView.mCurrentValue);
-        circleView.mCurrentSpinnerDegreeValue = (360f / circleView.mMaxValue * circleView.mCurrentValue);
-        mLengthChangeAnimationStartTime = System.currentTimeMillis();
+        circleView.mSpinningBarLengthCurrent = (360f / circleView.getMaxValue() * circleView.mCurrentValue);
+        circleView.mCurrentSpinnerDegreeValue = (360f / circleView.getMaxValue() * circleView.mCurrentValue);
+        mLengthChangeAnimationStartTime = mFrameTime;
         mSpinningBarLengthStart = circleView.mSpinningBarLengthCurrent;
+        mLastSpinnerFrameTime = mFrameTime;
 
 
         //calc animation time
-        float stepsTillFinish = circleView.mSpinningBarLengthOrig / circleView.mSpinSpeed;
-        mLengthChangeAnimationDuration = ((stepsTillFinish * circleView.mFrameDelayMillis) * 2f);
+        mLengthChangeAnimationDuration = calcLengthChangeDuration(circleView, circleView.mSpinningBarLengthOrig);
 
 
-        sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+        scheduleTick(circleView);
     }
 
 
@@ -364,9 +792,7 @@ public class AnimationHandler extends Handler {
      * @return false if animation still running, true if animation is finished.
      */
     private boolean calcNextAnimationValue(CircleProgressView circleView) {
-        float t = (float) ((System.currentTimeMillis() - mAnimationStartTime)
-                / circleView.mAnimationDuration);
-        t = t > 1.0f ? 1.0f : t;
+        float t = calcProgress(mAnimationStartTime, mRunningAnimationDuration);
         float interpolatedRatio = mInterpolator.getInterpolation(t);
 
         circleView.mCurrentValue = (circleView.mValueFrom + ((circleView.mValueTo - circleView.mValueFrom) * interpolatedRatio));
@@ -374,13 +800,280 @@ public class AnimationHandler extends Handler {
         return t >= 1;
     }
 
-    private void setValue(Message msg, CircleProgressView circleView) {
+    /**
+     * Moves the value like a damped spring with the mass 1 towards mValueTo, starting with the current velocity.
+     * Uses the closed-form solution of the under-, critically or over-damped spring, so it is exact and
+     * stable for every stiffness and damping ratio.
+     *
+     * @param circleView the circle view
+     * @return false if the spring is still moving, true if it rests at the target value.
+     */
+    private boolean calcNextSpringValue(CircleProgressView circleView) {
+        double t = Math.max(0, mFrameTime - mLastSpringFrameTime) / 1000.0;
+        mLastSpringFrameTime = mFrameTime;
+        t = Math.min(t, SPRING_MAX_FRAME_TIME);
+
+        double omega = Math.sqrt(mSpringStiffness);
+        double zeta = mSpringDampingRatio;
+        double x0 = circleView.mCurrentValue - circleView.mValueTo;
+        double v0 = mSpringVelocity;
+        double position;
+        double velocity;
+        if (Math.abs(zeta - 1) < SPRING_CRITICAL_TOLERANCE) {
+            // critically damped: x = (A + B t) e^(-w t)
+            double b = v0 + omega * x0;
+            double decay = Math.exp(-omega * t);
+            position = (x0 + b * t) * decay;
+            velocity = (v0 - omega * b * t) * decay;
+        } else if (zeta < 1) {
+            // under-damped: x = (A cos(wd t) + B sin(wd t)) e^(-zeta w t)
+            double omegaD = omega * Math.sqrt(1 - zeta * zeta);
+            double a = zeta * omega;
+            double b = (v0 + a * x0) / omegaD;
+            double decay = Math.exp(-a * t);
+            double cos = Math.cos(omegaD * t);
+            double sin = Math.sin(omegaD * t);
+            position = (x0 * cos + b * sin) * decay;
+            velocity = (v0 * cos - (a * b + omegaD * x0) * sin) * decay;
+        } else {
+            // over-damped: x = C1 e^(r1 t) + C2 e^(r2 t)
+            double root = omega * Math.sqrt(zeta * zeta - 1);
+            double r1 = -zeta * omega + root;
+            double r2 = -zeta * omega - root;
+            double c2 = (v0 - r1 * x0) / (r2 - r1);
+            double c1 = x0 - c2;
+            double e1 = Math.exp(r1 * t);
+            double e2 = Math.exp(r2 * t);
+            position = c1 * e1 + c2 * e2;
+            velocity = c1 * r1 * e1 + c2 * r2 * e2;
+        }
+        mSpringVelocity = (float) velocity;
+        circleView.mCurrentValue = circleView.mValueTo + (float) position;
+
+        float restThreshold = SPRING_REST_DEGREES * circleView.getMaxValue();
+        return Math.abs(position) * 360f <= restThreshold && Math.abs(velocity) * 360f <= restThreshold;
+    }
+
+    /**
+     * Calculates the value of a fling, which decays exponentially from mValueFrom towards mValueTo.
+     *
+     * @param circleView the circle view
+     * @return false if the fling is still running, true if the rest is too small to be visible.
+     */
+    private boolean calcNextFlingValue(CircleProgressView circleView) {
+        long elapsed = Math.max(0, mFrameTime - mAnimationStartTime);
+        float remaining = (float) Math.exp(-(double) elapsed / circleView.mFlingTimeConstant);
+        float delta = circleView.mValueTo - circleView.mValueFrom;
+        circleView.mCurrentValue = circleView.mValueTo - delta * remaining;
+
+        return Math.abs(delta * remaining) * 360f <= FLING_STOP_DEGREES * circleView.getMaxValue();
+    }
+
+    /**
+     * @return The degrees the spinner moves in the current frame. In time based mode the step
+     * depends on the time since the last frame, so late frames are caught up.
+     * With the frame clock, the spin speed per step is scaled to the time since the last frame,
+     * so the spinner moves as fast as with one step every mFrameDelayMillis, independent of the refresh rate.
+     */
+    private float calcSpinnerStep(CircleProgressView circleView) {
+        long elapsed = Math.max(0, mFrameTime - mLastSpinnerFrameTime);
+        mLastSpinnerFrameTime = mFrameTime;
+        if (circleView.mTimeBasedSpinning) {
+            return circleView.mSpinSpeedPerSecond * elapsed / 1000f;
+        }
+        if (mUseFrameClock) {
+            return circleView.mSpinSpeed * elapsed / Math.max(1, circleView.mFrameDelayMillis);
+        }
+        return circleView.mSpinSpeed;
+    }
+
+    /**
+     * @param _degrees The degrees the spinner length changes.
+     * @return The duration of the length change in ms, which takes as long as spinning twice the degrees.
+     */
+    private double calcLengthChangeDuration(CircleProgressView circleView, float _degrees) {
+        if (circleView.mTimeBasedSpinning) {
+            return (_degrees / circleView.mSpinSpeedPerSecond * 1000f) * 2f;
+        }
+        float stepsTillFinish = _degrees / circleView.mSpinSpeed;
+        return (stepsTillFinish * circleView.mFrameDelayMillis) * 2f;
+    }
+
+    private float calcLengthChangeProgress() {
+        return calcProgress(mLengthChangeAnimationStartTime, mLengthChangeAnimationDuration);
+    }
+
+    /**
+     * @param _startTime The start time of the animation.
+     * @param _duration  The duration of the animation in ms.
+     * @return The progress of the animation at the current frame time, between 0 and 1.
+     */
+    private float calcProgress(long _startTime, double _duration) {
+        float t = (float) ((mFrameTime - _startTime) / _duration);
+        // the vsync timestamp of a frame may be slightly older than the time a message was handled
+        t = t < 0.0f ? 0.0f : t;
+        return t > 1.0f ? 1.0f : t;
+    }
+
+    /**
+     * Requests the next tick. With the frame clock, the handler stays registered at the
+     * shared ticker until the state machine returns to IDLE.
+     */
+    private void scheduleTick(CircleProgressView circleView) {
+        if (mSuspended) {
+            mTickDeferred = true;
+            return;
+        }
+        if (mUseFrameClock) {
+            AnimationTicker.getInstance().register(this);
+        } else {
+            sendEmptyMessageDelayed(AnimationMsg.TICK.ordinal(), circleView.mFrameDelayMillis - (SystemClock.uptimeMillis() - mFrameStartTime));
+        }
+    }
+
+    private void cancelTick() {
+        mTickDeferred = false;
+        AnimationTicker.getInstance().unregister(this);
+        removeMessages(AnimationMsg.TICK.ordinal());
+    }
+
+    /**
+     * @return true if a tick is pending, either as frame callback or as TICK message.
+     */
+    boolean isTickScheduled() {
+        return AnimationTicker.getInstance().isRegistered(this) || hasMessages(AnimationMsg.TICK.ordinal());
+    }
+
+    /**
+     * Animates to the latest value published by {@link CircleProgressView#publishValue(float)}.
+     */
+    private void applyPublishedValue(CircleProgressView circleView) {
+        mPublishedValueRequested = false;
+        float valueTo = circleView.consumePublishedValue();
+        if (circleView.mAnimationState == AnimationState.IDLE && valueTo == circleView.mCurrentValue) {
+            return; // nothing to animate
+        }
+        handleAnimationMsg(circleView, AnimationMsg.SET_VALUE_ANIMATED, circleView.mCurrentValue, valueTo, (long) circleView.mAnimationDuration);
+    }
+
+    /**
+     * Requests to apply the latest seek value of the view, see {@link CircleProgressView#consumeSeekValue()}.
+     * With the frame clock, all requests within a frame are applied once on the next frame,
+     * without sending a message. Otherwise the value is applied immediately.
+     */
+    void requestSeekValue() {
+        CircleProgressView circleView = mCircleViewWeakReference.get();
+        if (circleView == null) {
+            return;
+        }
+        mFrameStartTime = SystemClock.uptimeMillis();
+        if (mUseFrameClock && !mSuspended) {
+            mSeekValueRequested = true;
+            scheduleTick(circleView);
+        } else {
+            mFrameTime = mFrameStartTime;
+            applySeekValue(circleView);
+        }
+    }
+
+    /**
+     * Discards a seek value which was requested but not applied yet.
+     */
+    void cancelSeekValue() {
+        mSeekValueRequested = false;
+    }
+
+    /**
+     * Applies a seek value which was requested but not applied yet immediately.
+     */
+    void flushSeekValue() {
+        CircleProgressView circleView = mCircleViewWeakReference.get();
+        if (!mSeekValueRequested || circleView == null) {
+            return;
+        }
+        mFrameStartTime = SystemClock.uptimeMillis();
+        mFrameTime = mFrameStartTime;
+        applySeekValue(circleView);
+    }
+
+    private void applySeekValue(CircleProgressView circleView) {
+        mSeekValueRequested = false;
+        float value = circleView.consumeSeekValue();
+        handleAnimationMsg(circleView, AnimationMsg.SET_VALUE, value, value, 0);
+    }
+
+    /**
+     * Queues an animated value according to the {@link ValueQueuePolicy}.
+     *
+     * @return true if the value was queued, false if it has to be applied now.
+     */
+    private boolean queueValue(CircleProgressView circleView, float valueTo, long duration) {
+        switch (mValueQueuePolicy) {
+            case SEQUENTIAL:
+                if (circleView.mAnimationState == AnimationState.IDLE) {
+                    return false;
+                }
+                break;
+            case COALESCE:
+                if (mValueQueue.isEmpty() && mFrameTime - mLastCoalescedValueTime >= mCoalesceWindow) {
+                    // first value of a burst
+                    mLastCoalescedValueTime = mFrameTime;
+                    return false;
+                }
+                // only the latest value of a burst is kept
+                mValueQueue.clear();
+                scheduleTick(circleView);
+                break;
+            default:
+                return false;
+        }
+        mValueQueue.add(valueTo, duration);
+        return true;
+    }
+
+    /**
+     * Continues a finished animation with the next queued value of {@link ValueQueuePolicy#SEQUENTIAL}.
+     *
+     * @return true if the next value is animated.
+     */
+    private boolean startNextQueuedValue(CircleProgressView circleView) {
+        if (mValueQueuePolicy != ValueQueuePolicy.SEQUENTIAL || mValueQueue.isEmpty()) {
+            return false;
+        }
+        mRunningAnimationDuration = mValueQueue.peekDuration();
+        circleView.mCurrentValue = circleView.mValueFrom = circleView.mValueTo;
+        circleView.mValueTo = mValueQueue.poll();
+        mAnimationStartTime = mFrameTime;
+        mLastSpringFrameTime = mFrameTime;
+        mSpringVelocity = 0;
+        return true;
+    }
+
+    /**
+     * Applies the latest value of a burst of {@link ValueQueuePolicy#COALESCE} after the coalesce window.
+     */
+    private void applyCoalescedValue(CircleProgressView circleView) {
+        if (mValueQueuePolicy != ValueQueuePolicy.COALESCE || mValueQueue.isEmpty()) {
+            return;
+        }
+        if (mFrameTime - mLastCoalescedValueTime < mCoalesceWindow) {
+            scheduleTick(circleView);
+            return;
+        }
+        long duration = mValueQueue.peekDuration();
+        float valueTo = mValueQueue.poll();
+        handleAnimationMsg(circleView, AnimationMsg.SET_VALUE_ANIMATED, circleView.mCurrentValue, valueTo, duration);
+    }
+
+    private void setValue(float value, CircleProgressView circleView) {
+        mValueQueue.clear();
         circleView.mValueFrom = circleView.mValueTo;
-        circleView.mCurrentValue = circleView.mValueTo = ((float[]) msg.obj)[0];
+        circleView.mCurrentValue = circleView.mValueTo = value;
         circleView.mAnimationState = AnimationState.IDLE;
         if (circleView.mAnimationStateChangedListener != null) {
             circleView.mAnimationStateChangedListener.onAnimationStateChanged(circleView.mAnimationState);
         }
+        cancelTick();
         circleView.invalidate();
     }
 }
@@ -6,6 +6,8 @@ enum AnimationMsg {
     STOP_SPINNING,
     SET_VALUE,
     SET_VALUE_ANIMATED,
-    TICK
+    TICK,
+    PUBLISH_VALUE,
+    START_FLING
 
 }
@@ -5,5 +5,6 @@ public enum AnimationState {
     SPINNING,
     END_SPINNING,
     END_SPINNING_START_ANIMATING,
-    START_ANIMATING_AFTER_SPINNING, ANIMATING
+    START_ANIMATING_AFTER_SPINNING, ANIMATING,
+    FLINGING
 }
@@ -0,0 +1,123 @@
+package at.grabner.circleprogress;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Process wide frame clock. Drives all registered animations from a single
+ * {@link Choreographer} frame callback, so the scheduling cost per frame does not grow
+ * with the number of animated views.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+final class AnimationTicker implements Choreographer.FrameCallback {
+
+    interface FrameListener {
+
+        /**
+         * Called once per displayed frame while the listener is registered.
+         *
+         * @param _frameTimeMillis The frame time in ms, in the {@link android.os.SystemClock#uptimeMillis()} time base.
+         */
+        void doAnimationFrame(long _frameTimeMillis);
+
+        /**
+         * @return The value last set by {@link #setTickerRegistered(boolean)}.
+         */
+        boolean isTickerRegistered();
+
+        /**
+         * Stores the registration state, so the ticker does not need to search its list.
+         * Only called by the {@link AnimationTicker}.
+         */
+        void setTickerRegistered(boolean _registered);
+    }
+
+    private static AnimationTicker sInstance;
+
+    private final ArrayList<FrameListener> mListeners = new ArrayList<FrameListener>();
+    private boolean mFrameCallbackPosted = false;
+    private boolean mDispatching = false;
+    // true if listeners were unregistered during dispatching and the list contains null entries
+    private boolean mHasRemovedListeners = false;
+
+    private AnimationTicker() {
+    }
+
+    static AnimationTicker getInstance() {
+        if (sInstance == null) {
+            sInstance = new AnimationTicker();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Registers the listener for the next frames. Registering a listener twice has no effect.
+     */
+    void register(FrameListener _listener) {
+        if (!_listener.isTickerRegistered()) {
+            _listener.setTickerRegistered(true);
+            mListeners.add(_listener);
+        }
+        if (!mFrameCallbackPosted) {
+            mFrameCallbackPosted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Unregisters the listener. Only searches the list if the listener is registered,
+     * which happens once per animation and not per frame.
+     */
+    void unregister(FrameListener _listener) {
+        if (!_listener.isTickerRegistered()) {
+            return;
+        }
+        _listener.setTickerRegistered(false);
+        int index = mListeners.indexOf(_listener);
+        if (mDispatching) {
+            // keep indices stable while iterating, the list is compacted after the frame
+            mListeners.set(index, null);
+            mHasRemovedListeners = true;
+        } else {
+            mListeners.remove(index);
+        }
+    }
+
+    boolean isRegistered(FrameListener _listener) {
+        return _listener.isTickerRegistered();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFrameCallbackPosted = false;
+        // the frame time uses the same time base as SystemClock.uptimeMillis()
+        long frameTimeMillis = frameTimeNanos / 1000000L;
+
+        mDispatching = true;
+        // listeners registered during this frame are called on the next frame
+        int size = mListeners.size();
+        for (int i = 0; i < size; i++) {
+            FrameListener listener = mListeners.get(i);
+            if (listener != null) {
+                listener.doAnimationFrame(frameTimeMillis);
+            }
+        }
+        mDispatching = false;
+
+        if (mHasRemovedListeners) {
+            mHasRemovedListeners = false;
+            for (int i = mListeners.size() - 1; i >= 0; i--) {
+                if (mListeners.get(i) == null) {
+                    mListeners.remove(i);
+                }
+            }
+        }
+
+        if (!mListeners.isEmpty() && !mFrameCallbackPosted) {
+            mFrameCallbackPosted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,2060 @@
+package at.grabner.circleprogress;
+
+import android.animation.TimeInterpolator;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.DashPathEffect;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.Path;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import androidx.annotation.ColorInt;
+import androidx.annotation.FloatRange;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+
+/**
+ * Draws the circle of a {@link CircleProgressView}: background circle, rim, contours, bar, spinner, text and unit.
+ * <p/>
+ * The drawable has no animation, it draws the value set with {@link #setValue(float)}.
+ * It can be used on its own wherever a {@link Drawable} fits, e.g. as image of an ImageView,
+ * in a compound drawable of a TextView or to render the progress circle into a bitmap.
+ * The circle is centered in the bounds of the drawable and uses the shorter side as diameter.
+ */
+@SuppressWarnings("unused")
+public class CircleProgressDrawable extends Drawable {
+
+    interface ValueAnimationListener {
+
+        /**
+         * Called if a ring or the segments start a value animation, the animation needs ticks till it is finished.
+         */
+        void onValueAnimationRequested();
+    }
+
+    private static final boolean DEBUG = false;
+    //----------------------------------
+    //region members
+    //Colors (with defaults)
+    final int mBarColorStandard = 0xff009688; //stylish blue
+    //Rectangles, shared with CircleProgressView
+    final RectF mCircleBounds = new RectF();
+    final RectF mInnerCircleBound = new RectF();
+    /**
+     * Maximum size of the text.
+     */
+    final RectF mOuterTextBounds = new RectF();
+    /**
+     * Actual size of the text.
+     */
+    final RectF mActualTextBounds = new RectF();
+    final RectF mUnitBounds = new RectF();
+    final RectF mCircleOuterContour = new RectF();
+    final RectF mCircleInnerContour = new RectF();
+    //value and animation state, set by the view on every frame
+    private float mValue = 0;
+    private float mMaxValue = 100;
+    private Direction mDirection = Direction.CW;
+    private AnimationState mAnimationState = AnimationState.IDLE;
+    private float mSpinnerDegree = 0;
+    private float mSpinnerLength = 0;
+    private boolean mDrawBarWhileSpinning;
+
+    private int mBarWidth = 40;
+    private int mRimWidth = 40;
+    private int mStartAngle = 270;
+    private float mOuterContourSize = 1;
+    private float mInnerContourSize = 1;
+
+    // Bar start/end width and type
+    private int mBarStartEndLineWidth = 0;
+    private BarStartEndLine mBarStartEndLine = BarStartEndLine.NONE;
+    private int mBarStartEndLineColor = 0xAA000000;
+    private float mBarStartEndLineSweep = 10f;
+    //Default text sizes
+    private int mUnitTextSize = 10;
+    private int mTextSize = 10;
+    //Text scale
+    private float mTextScale = 1;
+    private float mUnitScale = 1;
+    private int mOuterContourColor = 0xAA000000;
+    private int mInnerContourColor = 0xAA000000;
+    private int mSpinnerColor = mBarColorStandard; //stylish blue
+    private int mBackgroundCircleColor = 0x00000000;  //transparent
+    private int mRimColor = 0xAA83d0c9;
+    private int mTextColor = 0xFF000000;
+    private int mUnitColor = 0xFF000000;
+    private boolean mIsAutoColorEnabled = false;
+    private int[] mBarColors = new int[]{
+            mBarColorStandard //stylish blue
+    };
+    // gradient of the bar colors sampled from 0 to max value, used for the auto text color
+    private static final int COLOR_LUT_SIZE = 256;
+    private final int[] mBarColorLut = new int[COLOR_LUT_SIZE];
+    private ColorInterpolation mBarColorInterpolation = ColorInterpolation.RGB;
+    private ColorUtils.HSVColorDirection mBarColorHSVDirection = ColorUtils.HSVColorDirection.Shortest;
+    //Caps
+    private Paint.Cap mBarStrokeCap = Paint.Cap.BUTT;
+    private Paint.Cap mSpinnerStrokeCap = Paint.Cap.BUTT;
+    //Paints
+    private Paint mBarPaint = new Paint();
+    // caps of a gradient bar, drawn separately so that they do not sample the gradient across its seam
+    private final Paint mBarCapPaint = new Paint();
+    private final RectF mBarCapBounds = new RectF();
+    private Paint mBarSpinnerPaint = new Paint();
+    private Paint mBarStartEndLinePaint = new Paint();
+    private Paint mBackgroundCirclePaint = new Paint();
+    private Paint mRimPaint = new Paint();
+    private Paint mTextPaint = new Paint();
+    private Paint mUnitTextPaint = new Paint();
+    private Paint mOuterContourPaint = new Paint();
+    private Paint mInnerContourPaint = new Paint();
+    //Other
+    // The text to show
+    private String mText = "";
+    private char[] mTextChars = new char[0];
+    private int mTextLength;
+    private String mUnit = "";
+    private char[] mUnitChars = new char[0];
+    private UnitPosition mUnitPosition = UnitPosition.RIGHT_TOP;
+    /**
+     * Indicates if the given text, the current percentage, or the current value should be shown.
+     */
+    private TextMode mTextMode = TextMode.PERCENT;
+    private boolean mIsAutoTextSize;
+    private boolean mShowUnit = false;
+    // background circle, rim and contours, recorded once and replayed on every frame
+    private final StaticLayer mStaticLayer = new StaticLayer(new StaticLayer.Renderer() {
+        @Override
+        public void drawStaticLayer(Canvas _canvas) {
+            drawStaticParts(_canvas);
+        }
+    });
+    /**
+     * Relative size of the unite string to the value string.
+     */
+    private float mRelativeUniteSize = 1f;
+    private boolean mShowTextWhileSpinning = false;
+    private boolean mShowBlock = false;
+    private int mBlockCount = 18;
+    private float mBlockScale = 0.9f;
+    private float mBlockDegree = 360 / mBlockCount;
+    private float mBlockScaleDegree = mBlockDegree * mBlockScale;
+    // block geometry, rebuilt if block count, block scale, bounds or start angle change
+    private final Path mBlockRimPath = new Path();
+    private DashPathEffect mBlockBarPathEffect;
+    private boolean mBlockGeometryValid = false;
+    // output of the last drawn frame, used to skip frames without visible changes
+    private int mDrawnSweepPixels = -1;
+    private char[] mDrawnText = new char[16];
+    private int mDrawnTextLength = -1; // -1 if no text was drawn
+    private int mDrawnTextColor;
+
+
+    private DecimalFormat decimalFormat = new DecimalFormat("0");
+    private FastDecimalFormat mFastDecimalFormat = new FastDecimalFormat(decimalFormat);
+    // text of the current frame, points to mTextChars or the buffer of mFastDecimalFormat
+    private char[] mFrameText;
+    private int mFrameTextLength;
+
+    // temporaries for text measuring, avoid allocations while drawing
+    private final Rect mTmpTextBounds = new Rect();
+    private final RectF mTmpTextBoundsF = new RectF();
+    private final RectF mTmpTextRect = new RectF();
+    private final Matrix mTmpMatrix = new Matrix();
+    private final float[] mTmpMatrixValues = new float[9];
+    private char[] mTmpMeasureChars = new char[16];
+
+    // Text typeface
+    private Typeface textTypeface;
+    private Typeface unitTextTypeface;
+
+    // additional rings inside the circle, from the outside to the inside
+    private final ArrayList<CircleProgressRing> mRings = new ArrayList<CircleProgressRing>();
+    private int mRingSpacing = 0;
+    // the circle inside all rings, the text is fitted into it
+    private final RectF mTextCircleBounds = new RectF();
+    private ValueAnimationListener mValueAnimationListener;
+    // segments of the bar, drawn back to back from the start angle instead of the bar
+    private int mSegmentCount = 0;
+    private float[] mSegmentValues = new float[0];
+    private float[] mSegmentValuesFrom = new float[0];
+    private float[] mSegmentValuesTo = new float[0];
+    // sweep of each segment in degrees, updated if the values change
+    private float[] mSegmentSweeps = new float[0];
+    private Paint[] mSegmentPaints = new Paint[0];
+    private boolean mSegmentsAnimating = false;
+    // the start time is set on the first frame of the animation, -1 till then
+    private long mSegmentAnimationStartTime = -1;
+    private long mSegmentAnimationDuration;
+
+    // drawable state
+    private int mAlpha = 255;
+    private ColorFilter mColorFilter;
+    //endregion members
+    //----------------------------------
+
+    /**
+     * Creates a drawable with the default style of the {@link CircleProgressView}.
+     */
+    public CircleProgressDrawable() {
+        updateBarColorLut();
+        setupPaints();
+    }
+
+
+    private float calcTextSizeForRect(char[] _text, int _length, Paint _textPaint, RectF _rectBounds) {
+
+        if (mTmpMeasureChars.length < _length) {
+            mTmpMeasureChars = new char[_length];
+        }
+        //replace digits by the widest digit because for some fonts the digits have different widths,
+        //texts with the same digit pattern get the same size and share the cached result
+        char widestDigit = TextSizeCache.getWidestDigit(_textPaint);
+        char[] text = mTmpMeasureChars;
+        for (int i = 0; i < _length; i++) {
+            text[i] = TextSizeCache.isDigit(_text[i]) ? widestDigit : _text[i];
+        }
+
+        //get current mText bounds
+        _textPaint.getTextBounds(text, 0, _length, mTmpTextBounds);
+
+        mTmpTextBoundsF.set(mTmpTextBounds);
+
+        mTmpMatrix.setRectToRect(mTmpTextBoundsF, _rectBounds, Matrix.ScaleToFit.CENTER);
+        mTmpMatrix.getValues(mTmpMatrixValues);
+        return _textPaint.getTextSize() * mTmpMatrixValues[Matrix.MSCALE_X];
+    }
+
+    /**
+     * @param _angle The angle in degree to normalize
+     * @return the angle between 0 (EAST) and 360
+     */
+    static float normalizeAngle(float _angle) {
+        return (((_angle % 360) + 360) % 360);
+    }
+
+    //----------------------------------
+    //region getter/setter
+    public float getValue() {
+        return mValue;
+    }
+
+    /**
+     * Sets the value to draw, without an animation.
+     *
+     * @param _value The value.
+     */
+    public void setValue(float _value) {
+        mValue = _value;
+        invalidateSelf();
+    }
+
+    /**
+     * Sets everything which changes during an animation of the {@link CircleProgressView}, without invalidating.
+     */
+    void setAnimationFrame(float _value, AnimationState _animationState, float _spinnerDegree,
+                           float _spinnerLength, boolean _drawBarWhileSpinning) {
+        mValue = _value;
+        mAnimationState = _animationState;
+        mSpinnerDegree = _spinnerDegree;
+        mSpinnerLength = _spinnerLength;
+        mDrawBarWhileSpinning = _drawBarWhileSpinning;
+    }
+
+    public int getBarStartEndLineWidth() {
+        return mBarStartEndLineWidth;
+    }
+
+    public int getBarStartEndLineColor() {
+        return mBarStartEndLineColor;
+    }
+
+    public float getBarStartEndLineSweep() {
+        return mBarStartEndLineSweep;
+    }
+
+    public BarStartEndLine getBarStartEndLine() {
+        return mBarStartEndLine;
+    }
+
+    /**
+     * Allows to add a line to the start/end of the bar
+     *
+     * @param _barWidth        The width of the stroke on the start/end of the bar in pixel.
+     * @param _barStartEndLine The type of line on the start/end of the bar.
+     * @param _lineColor       The line color
+     * @param _sweepWidth      The sweep amount in degrees for the start and end bars to cover.
+     */
+    public void setBarStartEndLine(int _barWidth, BarStartEndLine _barStartEndLine, @ColorInt int _lineColor, float _sweepWidth) {
+        mBarStartEndLineWidth = _barWidth;
+        mBarStartEndLine = _barStartEndLine;
+        mBarStartEndLineColor = _lineColor;
+        mBarStartEndLineSweep = _sweepWidth;
+        invalidateSelf();
+    }
+
+    public int[] getBarColors() {
+        return mBarColors;
+    }
+
+    public ColorInterpolation getBarColorInterpolation() {
+        return mBarColorInterpolation;
+    }
+
+    /**
+     * Sets the color space used for the gradient of the bar colors and the auto text color.
+     * The gradient is computed once, the interpolation mode has no cost while drawing.
+     *
+     * @param _barColorInterpolation The interpolation mode. Default: {@link ColorInterpolation#RGB}
+     */
+    public void setBarColorInterpolation(@NonNull ColorInterpolation _barColorInterpolation) {
+        mBarColorInterpolation = _barColorInterpolation;
+        updateBarColorLut();
+        setupBarPaint();
+        invalidateSelf();
+    }
+
+    public ColorUtils.HSVColorDirection getBarColorHSVDirection() {
+        return mBarColorHSVDirection;
+    }
+
+    /**
+     * @param _barColorHSVDirection The direction of the hue if the bar colors use {@link ColorInterpolation#HSV}.
+     *                              Default: {@link ColorUtils.HSVColorDirection#Shortest}
+     */
+    public void setBarColorHSVDirection(@NonNull ColorUtils.HSVColorDirection _barColorHSVDirection) {
+        mBarColorHSVDirection = _barColorHSVDirection;
+        updateBarColorLut();
+        setupBarPaint();
+        invalidateSelf();
+    }
+
+    public Paint.Cap getBarStrokeCap() {
+        return mBarStrokeCap;
+    }
+
+    /**
+     * @param _barStrokeCap The stroke cap of the progress bar.
+     */
+    public void setBarStrokeCap(Paint.Cap _barStrokeCap) {
+        mBarStrokeCap = _barStrokeCap;
+        mBarPaint.setStrokeCap(_barStrokeCap);
+        invalidateSelf();
+    }
+
+    public int getBarWidth() {
+        return mBarWidth;
+    }
+
+    /**
+     * @param barWidth The width of the progress bar in pixel.
+     */
+    public void setBarWidth(@IntRange(from = 0) int barWidth) {
+        this.mBarWidth = barWidth;
+        mBarPaint.setStrokeWidth(barWidth);
+        mBarSpinnerPaint.setStrokeWidth(barWidth);
+        for (int i = 0; i < mSegmentCount; i++) {
+            mSegmentPaints[i].setStrokeWidth(barWidth);
+        }
+        updateBounds();
+    }
+
+    public int getBlockCount() {
+        return mBlockCount;
+    }
+
+    public void setBlockCount(int blockCount) {
+        if (blockCount > 1) {
+            mShowBlock = true;
+            mBlockCount = blockCount;
+            mBlockDegree = 360.0f / blockCount;
+            mBlockScaleDegree = mBlockDegree * mBlockScale;
+        } else {
+            mShowBlock = false;
+        }
+        mBlockGeometryValid = false;
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    public float getBlockScale() {
+        return mBlockScale;
+    }
+
+    public void setBlockScale(@FloatRange(from = 0.0, to = 1) float blockScale) {
+        if (blockScale >= 0.0f && blockScale <= 1.0f) {
+            mBlockScale = blockScale;
+            mBlockScaleDegree = mBlockDegree * blockScale;
+            mBlockGeometryValid = false;
+            mStaticLayer.invalidate();
+        }
+        invalidateSelf();
+    }
+
+    public int getOuterContourColor() {
+        return mOuterContourColor;
+    }
+
+    /**
+     * @param _contourColor The color of the background contour of the circle.
+     */
+    public void setOuterContourColor(@ColorInt int _contourColor) {
+        mOuterContourColor = _contourColor;
+        mOuterContourPaint.setColor(_contourColor);
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    public float getOuterContourSize() {
+        return mOuterContourSize;
+    }
+
+    /**
+     * @param _contourSize The size of the background contour of the circle.
+     */
+    public void setOuterContourSize(@FloatRange(from = 0.0) float _contourSize) {
+        mOuterContourSize = _contourSize;
+        mOuterContourPaint.setStrokeWidth(_contourSize);
+        updateBounds();
+    }
+
+    public int getInnerContourColor() {
+        return mInnerContourColor;
+    }
+
+    /**
+     * @param _contourColor The color of the background contour of the circle.
+     */
+    public void setInnerContourColor(@ColorInt int _contourColor) {
+        mInnerContourColor = _contourColor;
+        mInnerContourPaint.setColor(_contourColor);
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    public float getInnerContourSize() {
+        return mInnerContourSize;
+    }
+
+    /**
+     * @param _contourSize The size of the background contour of the circle.
+     */
+    public void setInnerContourSize(@FloatRange(from = 0.0) float _contourSize) {
+        mInnerContourSize = _contourSize;
+        mInnerContourPaint.setStrokeWidth(_contourSize);
+        updateBounds();
+    }
+
+    public int getFillColor() {
+        return mBackgroundCirclePaint.getColor();
+    }
+
+    public float getMaxValue() {
+        return mMaxValue;
+    }
+
+    /**
+     * The max value of the progress bar. Used to calculate the percentage of the current value.
+     * The bar fills according to the percentage. The default value is 100.
+     *
+     * @param _maxValue The max value.
+     */
+    public void setMaxValue(@FloatRange(from = 0) float _maxValue) {
+        mMaxValue = _maxValue;
+        updateSegmentSweeps();
+        invalidateSelf();
+    }
+
+    /**
+     * @return The relative size (scale factor) of the unit text size to the text size
+     */
+    public float getRelativeUniteSize() {
+        return mRelativeUniteSize;
+    }
+
+    public int getRimColor() {
+        return mRimColor;
+    }
+
+    /**
+     * @param rimColor The color of the rim around the Circle.
+     */
+    public void setRimColor(@ColorInt int rimColor) {
+        mRimColor = rimColor;
+        mRimPaint.setColor(rimColor);
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    public Shader getRimShader() {
+        return mRimPaint.getShader();
+    }
+
+    public void setRimShader(Shader shader) {
+        this.mRimPaint.setShader(shader);
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    public int getRimWidth() {
+        return mRimWidth;
+    }
+
+    /**
+     * @param rimWidth The width in pixel of the rim around the circle
+     */
+    public void setRimWidth(@IntRange(from = 0) int rimWidth) {
+        mRimWidth = rimWidth;
+        mRimPaint.setStrokeWidth(rimWidth);
+        updateBounds();
+    }
+
+    public Paint.Cap getSpinnerStrokeCap() {
+        return mSpinnerStrokeCap;
+    }
+
+    /**
+     * @param _spinnerStrokeCap The stroke cap of the progress bar in spinning mode.
+     */
+    public void setSpinnerStrokeCap(Paint.Cap _spinnerStrokeCap) {
+        mSpinnerStrokeCap = _spinnerStrokeCap;
+        mBarSpinnerPaint.setStrokeCap(_spinnerStrokeCap);
+        invalidateSelf();
+    }
+
+    public int getStartAngle() {
+        return mStartAngle;
+    }
+
+    public void setStartAngle(@IntRange(from = 0,to = 360) int _startAngle) {
+        // get a angle between 0 and 360
+        mStartAngle = (int) normalizeAngle(_startAngle);
+        mBlockGeometryValid = false;
+        for (int i = 0; i < mRings.size(); i++) {
+            setupRingBarPaint(mRings.get(i));
+        }
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    public int calcTextColor() {
+        return mTextColor;
+    }
+
+    public int getUnitColor() {
+        return mUnitColor;
+    }
+
+    public boolean isTextColorAuto() {
+        return mIsAutoColorEnabled;
+    }
+
+    public int getSpinBarColor() {
+        return mSpinnerColor;
+    }
+
+    /**
+     * Sets the text color.
+     * You also need to  set {@link #setTextColorAuto(boolean)} to false to see your color.
+     *
+     * @param textColor the color
+     */
+    public void setTextColor(@ColorInt int textColor) {
+        mTextColor = textColor;
+        mTextPaint.setColor(textColor);
+        invalidateSelf();
+    }
+
+    /**
+     * @return The scale value
+     */
+    public float getTextScale() {
+        return mTextScale;
+    }
+
+    /**
+     * Scale factor for main text in the center of the circle view.
+     * Only used if auto text size is enabled.
+     *
+     * @param _textScale The scale value.
+     */
+    public void setTextScale(@FloatRange(from = 0.0) float _textScale) {
+        mTextScale = _textScale;
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    public int getTextSize() {
+        return mTextSize;
+    }
+
+    /**
+     * Text size of the text string. Disables auto text size
+     * If auto text size is on, use {@link #setTextScale(float)} to scale textSize.
+     *
+     * @param textSize The text size of the unit.
+     */
+    public void setTextSize(@IntRange(from = 0) int textSize) {
+        this.mTextPaint.setTextSize(textSize);
+        mTextSize = textSize;
+        mIsAutoTextSize = false;
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    public String getUnit() {
+        return mUnit;
+    }
+
+    /**
+     * @param _unit The unit to show next to the current value.
+     *              You also need to set {@link #setUnitVisible(boolean)} to true.
+     */
+    public void setUnit(String _unit) {
+        if (_unit == null) {
+            mUnit = "";
+        } else {
+            mUnit = _unit;
+        }
+        mUnitChars = mUnit.toCharArray();
+        invalidateSelf();
+    }
+
+    /**
+     * @return The scale value
+     */
+    public float getUnitScale() {
+        return mUnitScale;
+    }
+
+    /**
+     * Scale factor for unit text next to the main text.
+     * Only used if auto text size is enabled.
+     *
+     * @param _unitScale The scale value.
+     */
+    public void setUnitScale(@FloatRange(from = 0.0) float _unitScale) {
+        mUnitScale = _unitScale;
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    public int getUnitSize() {
+        return mUnitTextSize;
+    }
+
+    /**
+     * Text size of the unit string. Only used if text size is also set. (So automatic text size
+     * calculation is off. see {@link #setTextSize(int)}).
+     * If auto text size is on, use {@link #setUnitScale(float)} to scale unit size.
+     *
+     * @param unitSize The text size of the unit.
+     */
+    public void setUnitSize(@IntRange(from = 0) int unitSize) {
+        mUnitTextSize = unitSize;
+        mUnitTextPaint.setTextSize(unitSize);
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    /**
+     * @return true if auto text size is enabled, false otherwise.
+     */
+    public boolean isAutoTextSize() {
+        return mIsAutoTextSize;
+    }
+
+    /**
+     * @param _autoTextSize true to enable auto text size calculation.
+     */
+    public void setAutoTextSize(boolean _autoTextSize) {
+        mIsAutoTextSize = _autoTextSize;
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    public boolean isShowBlock() {
+        return mShowBlock;
+    }
+
+    public void setShowBlock(boolean showBlock) {
+        mShowBlock = showBlock;
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    public boolean isShowTextWhileSpinning() {
+        return mShowTextWhileSpinning;
+    }
+
+    /**
+     * @param shouldDrawTextWhileSpinning True to show text in spinning mode, false to hide it.
+     */
+    public void setShowTextWhileSpinning(boolean shouldDrawTextWhileSpinning) {
+        mShowTextWhileSpinning = shouldDrawTextWhileSpinning;
+        invalidateSelf();
+    }
+
+    public boolean isUnitVisible() {
+        return mShowUnit;
+    }
+
+    /**
+     * @param _showUnit True to show unit, false to hide it.
+     */
+    public void setUnitVisible(boolean _showUnit) {
+        if (_showUnit != mShowUnit) {
+            mShowUnit = _showUnit;
+            triggerReCalcTextSizesAndPositions(); // triggers recalculating text sizes
+        }
+    }
+
+    /**
+     * Sets the color of progress bar.
+     *
+     * @param barColors One or more colors. If more than one color is specified, a gradient of the colors is used.
+     */
+    public void setBarColor(@ColorInt int... barColors) {
+        this.mBarColors = barColors;
+        updateBarColorLut();
+        setupBarPaint();
+        invalidateSelf();
+    }
+
+    /**
+     * Sets the background color of the entire Progress Circle.
+     * Set the color to 0x00000000 (Color.TRANSPARENT) to hide it.
+     *
+     * @param circleColor the color.
+     */
+    public void setFillCircleColor(@ColorInt int circleColor) {
+        mBackgroundCircleColor = circleColor;
+        mBackgroundCirclePaint.setColor(circleColor);
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    /**
+     * @param _color The color of progress the bar in spinning mode.
+     */
+    public void setSpinBarColor(@ColorInt int _color) {
+        mSpinnerColor = _color;
+        mBarSpinnerPaint.setColor(mSpinnerColor);
+        invalidateSelf();
+    }
+
+    /**
+     * Set the text in the middle of the circle view.
+     * You need also set the {@link TextMode} to TextMode.TEXT to see the text.
+     *
+     * @param text The text to show
+     */
+    public void setText(String text) {
+        mText = text != null ? text : "";
+        mTextChars = mText.toCharArray();
+        invalidateSelf();
+    }
+
+    /**
+     * If auto text color is enabled, the text color  and the unit color is always the same as the rim color.
+     * This is useful if the rim has multiple colors (color gradient), than the text will always have
+     * the color of the tip of the rim.
+     *
+     * @param isEnabled true to enable, false to disable
+     */
+    public void setTextColorAuto(boolean isEnabled) {
+        mIsAutoColorEnabled = isEnabled;
+        invalidateSelf();
+    }
+
+    /**
+     * Sets the auto text mode.
+     *
+     * @param _textValue The mode
+     */
+    public void setTextMode(TextMode _textValue) {
+        mTextMode = _textValue;
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    /**
+     * @param typeface The typeface to use for the text
+     */
+    public void setTextTypeface(Typeface typeface) {
+        textTypeface = typeface;
+        mTextPaint.setTypeface(typeface);
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    /**
+     * Sets the unit text color.
+     * Also sets {@link #setTextColorAuto(boolean)} to false
+     *
+     * @param unitColor The color.
+     */
+    public void setUnitColor(@ColorInt int unitColor) {
+        mUnitColor = unitColor;
+        mUnitTextPaint.setColor(unitColor);
+        mIsAutoColorEnabled = false;
+        invalidateSelf();
+    }
+
+    public void setUnitPosition(UnitPosition _unitPosition) {
+        mUnitPosition = _unitPosition;
+        triggerReCalcTextSizesAndPositions(); // triggers recalculating text sizes
+    }
+
+    /**
+     * @param typeface The typeface to use for the unit text
+     */
+    public void setUnitTextTypeface(Typeface typeface) {
+        unitTextTypeface = typeface;
+        mUnitTextPaint.setTypeface(typeface);
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    /**
+     * @param _relativeUniteSize The relative scale factor of the unit text size to the text size.
+     *                           Only useful for autotextsize=true; Effects both, the unit text size and the text size.
+     */
+    public void setUnitToTextScale(@FloatRange(from = 0.0) float _relativeUniteSize) {
+        mRelativeUniteSize = _relativeUniteSize;
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    /**
+     * Sets the direction of circular motion (clockwise or counter-clockwise).
+     */
+    public void setDirection(Direction direction) {
+        mDirection = direction;
+        invalidateSelf();
+    }
+
+    public Direction getDirection() {
+        return mDirection;
+    }
+
+
+    /**
+     * @return The format of the value text. Call {@link #setDecimalFormat(DecimalFormat)}
+     * again after modifying it, otherwise the changes are not applied.
+     */
+    public DecimalFormat getDecimalFormat() {
+        return decimalFormat;
+    }
+
+    /**
+     * Sets the format of the value text. Common patterns (integer and fraction digits, grouping,
+     * prefixes and suffixes) are formatted without allocations, all others use the DecimalFormat directly.
+     *
+     * @param decimalFormat The format of the value text.
+     */
+    public void setDecimalFormat(DecimalFormat decimalFormat) {
+        if (decimalFormat == null) {
+            throw new IllegalArgumentException("decimalFormat must not be null!");
+        }
+        this.decimalFormat = decimalFormat;
+        mFastDecimalFormat = new FastDecimalFormat(decimalFormat);
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    /**
+     * Adds a ring inside the circle, within the rings added before.
+     *
+     * @param _ring The ring. A ring can only be added to one drawable.
+     */
+    public void addRing(@NonNull CircleProgressRing _ring) {
+        if (_ring.mOwner != null) {
+            throw new IllegalArgumentException("The ring is already added to a CircleProgressDrawable!");
+        }
+        _ring.mOwner = this;
+        _ring.mBarPaint.setColorFilter(mColorFilter);
+        _ring.mRimPaint.setColorFilter(mColorFilter);
+        mRings.add(_ring);
+        onRingLayoutChanged();
+    }
+
+    public void removeRing(@NonNull CircleProgressRing _ring) {
+        if (mRings.remove(_ring)) {
+            _ring.mOwner = null;
+            onRingLayoutChanged();
+        }
+    }
+
+    public int getRingCount() {
+        return mRings.size();
+    }
+
+    public CircleProgressRing getRing(int _index) {
+        return mRings.get(_index);
+    }
+
+    public int getRingSpacing() {
+        return mRingSpacing;
+    }
+
+    /**
+     * @param _ringSpacing The gap between the circle and the first ring and between the rings in pixel. Default: 0
+     */
+    public void setRingSpacing(@IntRange(from = 0) int _ringSpacing) {
+        mRingSpacing = _ringSpacing;
+        onRingLayoutChanged();
+    }
+
+    void setValueAnimationListener(ValueAnimationListener _valueAnimationListener) {
+        mValueAnimationListener = _valueAnimationListener;
+    }
+
+    /**
+     * Shows the bar as consecutive segments, e.g. to show a breakdown of a value.
+     * The segments are drawn back to back from the start angle in the direction of the circle.
+     * The text still shows the value of the drawable.
+     *
+     * @param _values The value of each segment, relative to the max value.
+     * @param _colors The color of each segment.
+     */
+    public void setSegments(@NonNull float[] _values, @NonNull @ColorInt int[] _colors) {
+        if (_values.length != _colors.length) {
+            throw new IllegalArgumentException("values and colors must have the same length!");
+        }
+        int count = _values.length;
+        if (count != mSegmentCount) {
+            mSegmentValues = new float[count];
+            mSegmentValuesFrom = new float[count];
+            mSegmentValuesTo = new float[count];
+            mSegmentSweeps = new float[count];
+            mSegmentPaints = new Paint[count];
+            for (int i = 0; i < count; i++) {
+                mSegmentPaints[i] = new Paint();
+            }
+            mSegmentCount = count;
+        }
+        for (int i = 0; i < count; i++) {
+            setupSegmentPaint(mSegmentPaints[i], _colors[i]);
+        }
+        setSegmentValues(_values);
+    }
+
+    /**
+     * Removes the segments, the bar is shown again.
+     */
+    public void clearSegments() {
+        setSegments(new float[0], new int[0]);
+    }
+
+    public int getSegmentCount() {
+        return mSegmentCount;
+    }
+
+    public float getSegmentValue(int _index) {
+        if (_index < 0 || _index >= mSegmentCount) {
+            throw new IndexOutOfBoundsException("index " + _index + " of " + mSegmentCount + " segments");
+        }
+        return mSegmentValues[_index];
+    }
+
+    /**
+     * @param _index The index of the segment.
+     * @param _color The color of the segment.
+     */
+    public void setSegmentColor(int _index, @ColorInt int _color) {
+        if (_index < 0 || _index >= mSegmentCount) {
+            throw new IndexOutOfBoundsException("index " + _index + " of " + mSegmentCount + " segments");
+        }
+        setupSegmentPaint(mSegmentPaints[_index], _color);
+        invalidateSelf();
+    }
+
+    /**
+     * Sets the values of the segments without an animation. Stops a running animation of the segments.
+     *
+     * @param _values The value of each segment, must have the length of the segments.
+     */
+    public void setSegmentValues(@NonNull float[] _values) {
+        checkSegmentValues(_values);
+        mSegmentsAnimating = false;
+        System.arraycopy(_values, 0, mSegmentValues, 0, mSegmentCount);
+        System.arraycopy(_values, 0, mSegmentValuesTo, 0, mSegmentCount);
+        updateSegmentSweeps();
+        invalidateSelf();
+    }
+
+    /**
+     * Animates all segments together from their current values to the given values.
+     * The values are set without an animation if the drawable is not shown by a {@link CircleProgressView}.
+     *
+     * @param _values            The value of each segment, must have the length of the segments.
+     * @param _animationDuration The duration of the animation in milliseconds.
+     */
+    public void setSegmentValuesAnimated(@NonNull float[] _values, @IntRange(from = 0) long _animationDuration) {
+        checkSegmentValues(_values);
+        if (!requestValueAnimation()) {
+            setSegmentValues(_values);
+            return;
+        }
+        System.arraycopy(mSegmentValues, 0, mSegmentValuesFrom, 0, mSegmentCount);
+        System.arraycopy(_values, 0, mSegmentValuesTo, 0, mSegmentCount);
+        mSegmentAnimationDuration = _animationDuration;
+        mSegmentAnimationStartTime = -1;
+        mSegmentsAnimating = true;
+    }
+
+    //endregion getter/setter
+    //----------------------------------
+
+    //----------------------------------
+    //region drawable
+
+    /**
+     * Applies the alpha to the whole circle. Values below 255 draw the circle through an offscreen layer.
+     */
+    @Override
+    public void setAlpha(@IntRange(from = 0, to = 255) int alpha) {
+        if (alpha != mAlpha) {
+            mAlpha = alpha;
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return mAlpha;
+    }
+
+    /**
+     * Applies the color filter to all paints.
+     */
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mColorFilter = colorFilter;
+        mBarPaint.setColorFilter(colorFilter);
+        mBarCapPaint.setColorFilter(colorFilter);
+        mBarSpinnerPaint.setColorFilter(colorFilter);
+        mBarStartEndLinePaint.setColorFilter(colorFilter);
+        mBackgroundCirclePaint.setColorFilter(colorFilter);
+        mRimPaint.setColorFilter(colorFilter);
+        mTextPaint.setColorFilter(colorFilter);
+        mUnitTextPaint.setColorFilter(colorFilter);
+        mOuterContourPaint.setColorFilter(colorFilter);
+        mInnerContourPaint.setColorFilter(colorFilter);
+        for (int i = 0; i < mSegmentCount; i++) {
+            mSegmentPaints[i].setColorFilter(colorFilter);
+        }
+        for (int i = 0; i < mRings.size(); i++) {
+            mRings.get(i).mBarPaint.setColorFilter(colorFilter);
+            mRings.get(i).mRimPaint.setColorFilter(colorFilter);
+        }
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    @Override
+    public ColorFilter getColorFilter() {
+        return mColorFilter;
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void saveLayerAlpha(Canvas _canvas) {
+        Rect bounds = getBounds();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            _canvas.saveLayerAlpha(bounds.left, bounds.top, bounds.right, bounds.bottom, mAlpha);
+        } else {
+            _canvas.saveLayerAlpha(bounds.left, bounds.top, bounds.right, bounds.bottom, mAlpha, Canvas.ALL_SAVE_FLAG);
+        }
+    }
+
+    //endregion drawable
+    //----------------------------------
+
+    //----------------------------------
+    // region helper
+    private void calcInnerCircleRect(RectF _circleBounds, RectF _result) {
+
+        double circleWidth = +_circleBounds.width() - (Math.max(mBarWidth, mRimWidth)) - mOuterContourSize - mInnerContourSize;
+        double width = ((circleWidth / 2d) * Math.sqrt(2d));
+        float widthDelta = (_circleBounds.width() - (float) width) / 2f;
+
+        float scaleX = 1;
+        float scaleY = 1;
+        if (isUnitVisible()) {
+            switch (mUnitPosition) {
+                case TOP:
+                case BOTTOM:
+                    scaleX = 1.1f; // scaleX square to rectangle, so the longer text with unit fits better
+                    scaleY = 0.88f;
+                    break;
+                case LEFT_TOP:
+                case RIGHT_TOP:
+                case LEFT_BOTTOM:
+                case RIGHT_BOTTOM:
+                    scaleX = 0.77f; // scaleX square to rectangle, so the longer text with unit fits better
+                    scaleY = 1.33f;
+                    break;
+            }
+
+        }
+        _result.set(_circleBounds.left + (widthDelta * scaleX), _circleBounds.top + (widthDelta * scaleY), _circleBounds.right - (widthDelta * scaleX), _circleBounds.bottom - (widthDelta * scaleY));
+
+    }
+
+    private void triggerReCalcTextSizesAndPositions() {
+        mTextLength = -1;
+        calcInnerCircleRect(mTextCircleBounds, mOuterTextBounds);
+        invalidateSelf();
+    }
+
+    /**
+     * Formats the text for the given value into {@link #mFrameText} and {@link #mFrameTextLength}.
+     * The text is only valid till the next call.
+     */
+    private void prepareTextForValue(float _value) {
+        switch (mTextMode) {
+            case TEXT:
+            default:
+                mFrameText = mTextChars;
+                mFrameTextLength = mTextChars.length;
+                break;
+            case PERCENT:
+                mFrameTextLength = mFastDecimalFormat.format(100f / mMaxValue * _value);
+                mFrameText = mFastDecimalFormat.getChars();
+                break;
+            case VALUE:
+                mFrameTextLength = mFastDecimalFormat.format(_value);
+                mFrameText = mFastDecimalFormat.getChars();
+                break;
+        }
+    }
+
+    private boolean isFrameTextDrawn() {
+        if (mFrameTextLength != mDrawnTextLength) {
+            return false;
+        }
+        for (int i = 0; i < mFrameTextLength; i++) {
+            if (mFrameText[i] != mDrawnText[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setFrameTextDrawn() {
+        if (mDrawnText.length < mFrameTextLength) {
+            mDrawnText = new char[mFrameTextLength];
+        }
+        System.arraycopy(mFrameText, 0, mDrawnText, 0, mFrameTextLength);
+        mDrawnTextLength = mFrameTextLength;
+    }
+
+    /**
+     * @return The arc length of the bar for the given value in whole pixels, measured on the outer edge of the bar.
+     */
+    private int calcSweepPixels(float _value) {
+        float degrees = 360f / mMaxValue * _value;
+        float radius = (mCircleBounds.width() + mBarWidth) / 2f;
+        return (int) (Math.toRadians(degrees) * radius);
+    }
+
+    /**
+     * Checks if drawing the given value changes the output of the last drawn frame:
+     * The arc of the bar by at least one pixel, the text or the text color.
+     * Used to skip pixel identical frames of a value animation.
+     *
+     * @param _value The value to draw next.
+     * @return true if the frame needs to be drawn.
+     */
+    boolean hasVisibleChange(float _value) {
+        if (mDrawnTextLength < 0
+                || calcSweepPixels(_value) != mDrawnSweepPixels
+                || (mIsAutoColorEnabled && calcTextColor(_value) != mDrawnTextColor)) {
+            return true;
+        } else if (mTextMode != TextMode.TEXT) {
+            prepareTextForValue(_value);
+            return !isFrameTextDrawn();
+        }
+        return false;
+    }
+
+    private void updateBarColorLut() {
+        ColorUtils.fillGradient(mBarColors, mBarColorLut, mBarColorInterpolation, mBarColorHSVDirection);
+    }
+
+    private int calcTextColor(double value) {
+        int index = (int) ((COLOR_LUT_SIZE - 1) / getMaxValue() * value + 0.5);
+        return mBarColorLut[Math.max(0, Math.min(COLOR_LUT_SIZE - 1, index))];
+    }
+
+    private void setTextSizeAndTextBoundsWithAutoTextSize(float unitGapWidthHalf, float unitWidth, float unitGapHeightHalf, float unitHeight, char[] text, int length) {
+        RectF textRect = mOuterTextBounds;
+
+        if (mShowUnit) {
+
+            //shrink text Rect so that there is space for the unit
+            switch (mUnitPosition) {
+
+                case TOP:
+                    textRect = mTmpTextRect;
+                    textRect.set(mOuterTextBounds.left, mOuterTextBounds.top + unitHeight + unitGapHeightHalf, mOuterTextBounds.right, mOuterTextBounds.bottom);
+                    break;
+                case BOTTOM:
+                    textRect = mTmpTextRect;
+                    textRect.set(mOuterTextBounds.left, mOuterTextBounds.top, mOuterTextBounds.right, mOuterTextBounds.bottom - unitHeight - unitGapHeightHalf);
+                    break;
+                case LEFT_TOP:
+                case LEFT_BOTTOM:
+                    textRect = mTmpTextRect;
+                    textRect.set(mOuterTextBounds.left + unitWidth + unitGapWidthHalf, mOuterTextBounds.top, mOuterTextBounds.right, mOuterTextBounds.bottom);
+                    break;
+                case RIGHT_TOP:
+                case RIGHT_BOTTOM:
+                default:
+                    textRect = mTmpTextRect;
+                    textRect.set(mOuterTextBounds.left, mOuterTextBounds.top, mOuterTextBounds.right - unitWidth - unitGapWidthHalf, mOuterTextBounds.bottom);
+                    break;
+            }
+
+        }
+
+        setAutoTextSizeAndTextBounds(text, length, mTextPaint, textRect, mTextScale, mActualTextBounds); // center text in text rect
+    }
+
+    private void setTextSizeAndTextBoundsWithFixedTextSize(char[] text, int length) {
+        mTextPaint.setTextSize(mTextSize);
+        calcTextBounds(text, length, mTextPaint, mCircleBounds, mActualTextBounds); //center text in circle
+    }
+
+    private void setUnitTextBoundsAndSizeWithAutoTextSize(float unitGapWidthHalf, float unitWidth, float unitGapHeightHalf, float unitHeight) {
+        //calc the rectangle containing the unit text
+        switch (mUnitPosition) {
+
+            case TOP: {
+                mUnitBounds.set(mOuterTextBounds.left, mOuterTextBounds.top, mOuterTextBounds.right, mOuterTextBounds.top + unitHeight - unitGapHeightHalf);
+                break;
+            }
+            case BOTTOM:
+                mUnitBounds.set(mOuterTextBounds.left, mOuterTextBounds.bottom - unitHeight + unitGapHeightHalf, mOuterTextBounds.right, mOuterTextBounds.bottom);
+                break;
+            case LEFT_TOP:
+            case LEFT_BOTTOM: {
+                mUnitBounds.set(mOuterTextBounds.left, mOuterTextBounds.top, mOuterTextBounds.left + unitWidth - unitGapWidthHalf, mOuterTextBounds.top + unitHeight);
+                break;
+            }
+            case RIGHT_TOP:
+            case RIGHT_BOTTOM:
+            default: {
+                mUnitBounds.set(mOuterTextBounds.right - unitWidth + unitGapWidthHalf, mOuterTextBounds.top, mOuterTextBounds.right, mOuterTextBounds.top + unitHeight);
+            }
+            break;
+        }
+
+        mTmpTextRect.set(mUnitBounds);
+        setAutoTextSizeAndTextBounds(mUnitChars, mUnitChars.length, mUnitTextPaint, mTmpTextRect, mUnitScale, mUnitBounds); // center text in rectangle
+
+        switch (mUnitPosition) {
+
+
+            case LEFT_TOP:
+            case RIGHT_TOP: {
+                //move unite to top of text
+                float dy = mActualTextBounds.top - mUnitBounds.top;
+                mUnitBounds.offset(0, dy);
+                break;
+            }
+            case LEFT_BOTTOM:
+            case RIGHT_BOTTOM: {
+                //move unite to bottom of text
+                float dy = mActualTextBounds.bottom - mUnitBounds.bottom;
+                mUnitBounds.offset(0, dy);
+                break;
+            }
+        }
+    }
+
+    private void setUnitTextBoundsAndSizeWithFixedTextSize(float unitGapWidth, float unitGapHeight) {
+        mUnitTextPaint.setTextSize(mUnitTextSize);
+        calcTextBounds(mUnitChars, mUnitChars.length, mUnitTextPaint, mOuterTextBounds, mUnitBounds); // center text in rectangle
+
+        switch (mUnitPosition) {
+
+            case TOP:
+                mUnitBounds.offsetTo(mUnitBounds.left, mActualTextBounds.top - unitGapHeight - mUnitBounds.height());
+                break;
+            case BOTTOM:
+                mUnitBounds.offsetTo(mUnitBounds.left, mActualTextBounds.bottom + unitGapHeight);
+                break;
+            case LEFT_TOP:
+            case LEFT_BOTTOM:
+                mUnitBounds.offsetTo(mActualTextBounds.left - unitGapWidth - mUnitBounds.width(), mUnitBounds.top);
+                break;
+            case RIGHT_TOP:
+            case RIGHT_BOTTOM:
+            default:
+                mUnitBounds.offsetTo(mActualTextBounds.right + unitGapWidth, mUnitBounds.top);
+                break;
+        }
+
+        switch (mUnitPosition) {
+            case LEFT_TOP:
+            case RIGHT_TOP: {
+                //move unite to top of text
+                float dy = mActualTextBounds.top - mUnitBounds.top;
+                mUnitBounds.offset(0, dy);
+                break;
+            }
+            case LEFT_BOTTOM:
+            case RIGHT_BOTTOM: {
+                //move unite to bottom of text
+                float dy = mActualTextBounds.bottom - mUnitBounds.bottom;
+                mUnitBounds.offset(0, dy);
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * Sets the text size so that the text fits into the _textRect and calculates the text bounds centered in the _textRect.
+     * Text sizes are shared between all views and all texts with the same digit pattern with the {@link TextSizeCache},
+     * the bounds for centering are calculated for the actual text.
+     *
+     * @param _result Receives the bounding box of the text. Must not be the same instance as _textRect.
+     */
+    private void setAutoTextSizeAndTextBounds(char[] _text, int _length, Paint _textPaint, RectF _textRect, float _scale, RectF _result) {
+        float textSize = TextSizeCache.get(_textPaint, _text, _length, _textRect, _scale);
+        if (textSize < 0) {
+            textSize = calcTextSizeForRect(_text, _length, _textPaint, _textRect) * _scale;
+            TextSizeCache.put(_textPaint, _text, _length, _textRect, _scale, textSize);
+        }
+        _textPaint.setTextSize(textSize);
+        calcTextBounds(_text, _length, _textPaint, _textRect, _result);
+    }
+
+    /**
+     * Calculates the bounding rectangle of the given _text, with the size and style defined in the _textPaint centered in the middle of the _textBounds
+     *
+     * @param _text       The text.
+     * @param _length     The number of chars of the text.
+     * @param _textPaint  The paint defining the text size and style.
+     * @param _textBounds The rect where the text will be centered.
+     * @param _result     Receives the bounding box of the text centered in the _textBounds. Must not be the same instance as _textBounds.
+     */
+    private void calcTextBounds(char[] _text, int _length, Paint _textPaint, RectF _textBounds, RectF _result) {
+
+        //get current text bounds
+        _textPaint.getTextBounds(_text, 0, _length, mTmpTextBounds);
+        float width = mTmpTextBounds.left + mTmpTextBounds.width();
+        float height = mTmpTextBounds.bottom + mTmpTextBounds.height() * 0.93f; // the height of calcTextBounds is a bit to high, therefore  * 0.93
+        centerTextBounds(width, height, _textBounds, _result);
+    }
+
+    private static void centerTextBounds(float width, float height, RectF _textBounds, RectF _result) {
+        //center in circle
+        _result.left = (_textBounds.left + ((_textBounds.width() - width) / 2));
+        _result.top = _textBounds.top + ((_textBounds.height() - height) / 2);
+        _result.right = _result.left + width;
+        _result.bottom = _result.top + height;
+    }
+
+    /**
+     * @return true if an animation tick was requested, false if there is nobody to animate the rings and segments.
+     */
+    boolean requestValueAnimation() {
+        if (mValueAnimationListener == null) {
+            return false;
+        }
+        mValueAnimationListener.onValueAnimationRequested();
+        return true;
+    }
+
+    void onRingLayoutChanged() {
+        setupRingBounds();
+        mStaticLayer.invalidate();
+        triggerReCalcTextSizesAndPositions();
+    }
+
+    void onRingStyleChanged(CircleProgressRing _ring) {
+        setupRingBarPaint(_ring);
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    boolean hasValueAnimations() {
+        if (mSegmentsAnimating) {
+            return true;
+        }
+        for (int i = 0; i < mRings.size(); i++) {
+            if (mRings.get(i).isAnimating()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calculates the values of all running ring and segment animations for the given frame.
+     *
+     * @return true if an animation is still running.
+     */
+    boolean calcNextAnimationValues(long _frameTime, TimeInterpolator _interpolator) {
+        boolean isAnimating = calcNextSegmentValues(_frameTime, _interpolator);
+        for (int i = 0; i < mRings.size(); i++) {
+            isAnimating |= mRings.get(i).calcNextAnimationValue(_frameTime, _interpolator);
+        }
+        return isAnimating;
+    }
+
+    /**
+     * Moves the start times of the running animations, e.g. by the time the animations were suspended.
+     */
+    void offsetAnimationStartTimes(long _offset) {
+        if (mSegmentsAnimating && mSegmentAnimationStartTime >= 0) {
+            mSegmentAnimationStartTime += _offset;
+        }
+        for (int i = 0; i < mRings.size(); i++) {
+            mRings.get(i).offsetAnimationStartTime(_offset);
+        }
+    }
+
+    private boolean calcNextSegmentValues(long _frameTime, TimeInterpolator _interpolator) {
+        if (!mSegmentsAnimating) {
+            return false;
+        }
+        if (mSegmentAnimationStartTime < 0) {
+            mSegmentAnimationStartTime = _frameTime;
+        }
+        float t = mSegmentAnimationDuration > 0 ? (float) (_frameTime - mSegmentAnimationStartTime) / mSegmentAnimationDuration : 1f;
+        if (t >= 1f) {
+            System.arraycopy(mSegmentValuesTo, 0, mSegmentValues, 0, mSegmentCount);
+            mSegmentsAnimating = false;
+        } else {
+            float interpolatedRatio = _interpolator.getInterpolation(Math.max(0f, t));
+            for (int i = 0; i < mSegmentCount; i++) {
+                mSegmentValues[i] = mSegmentValuesFrom[i] + (mSegmentValuesTo[i] - mSegmentValuesFrom[i]) * interpolatedRatio;
+            }
+        }
+        updateSegmentSweeps();
+        return mSegmentsAnimating;
+    }
+
+    private void checkSegmentValues(float[] _values) {
+        if (_values.length != mSegmentCount) {
+            throw new IllegalArgumentException("Expected " + mSegmentCount + " segment values, got " + _values.length + "!");
+        }
+    }
+
+    private void updateSegmentSweeps() {
+        for (int i = 0; i < mSegmentCount; i++) {
+            mSegmentSweeps[i] = 360f / mMaxValue * mSegmentValues[i];
+        }
+    }
+
+    //endregion helper
+    //----------------------------------
+
+    //----------------------------------
+    //region Setting up stuff
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        setupBounds();
+        setupBarPaint();
+    }
+
+    /**
+     * Set the bounds of the circle, centered in the bounds of the drawable.
+     */
+    /**
+     * Calculates the bounds again after a change of a width, if the drawable already has bounds.
+     */
+    private void updateBounds() {
+        if (!getBounds().isEmpty()) {
+            setupBounds();
+            setupBarPaint();
+        }
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    private void setupBounds() {
+        Rect bounds = getBounds();
+        // Width should equal to Height, find the min value to setup the circle
+        int minValue = Math.min(bounds.width(), bounds.height());
+
+        // Calc the Offset if needed
+        int xOffset = bounds.width() - minValue;
+        int yOffset = bounds.height() - minValue;
+
+        // Add the offset
+        float left = bounds.left + (xOffset / 2);
+        float top = bounds.top + (yOffset / 2);
+        float right = left + minValue;
+        float bottom = top + minValue;
+
+        float circleWidthHalf = mBarWidth / 2f > mRimWidth / 2f + mOuterContourSize ? mBarWidth / 2f : mRimWidth / 2f + mOuterContourSize;
+
+        mCircleBounds.set(left + circleWidthHalf,
+                top + circleWidthHalf,
+                right - circleWidthHalf,
+                bottom - circleWidthHalf);
+
+
+        mInnerCircleBound.set(left + (mBarWidth),
+                top + (mBarWidth),
+                right - (mBarWidth),
+                bottom - (mBarWidth));
+        setupRingBounds();
+        calcInnerCircleRect(mTextCircleBounds, mOuterTextBounds);
+        mCircleInnerContour.set(mCircleBounds.left + (mRimWidth / 2.0f) + (mInnerContourSize / 2.0f), mCircleBounds.top + (mRimWidth / 2.0f) + (mInnerContourSize / 2.0f), mCircleBounds.right - (mRimWidth / 2.0f) - (mInnerContourSize / 2.0f), mCircleBounds.bottom - (mRimWidth / 2.0f) - (mInnerContourSize / 2.0f));
+        mCircleOuterContour.set(mCircleBounds.left - (mRimWidth / 2.0f) - (mOuterContourSize / 2.0f), mCircleBounds.top - (mRimWidth / 2.0f) - (mOuterContourSize / 2.0f), mCircleBounds.right + (mRimWidth / 2.0f) + (mOuterContourSize / 2.0f), mCircleBounds.bottom + (mRimWidth / 2.0f) + (mOuterContourSize / 2.0f));
+
+        mTextLength = -1;
+        mBlockGeometryValid = false;
+        mStaticLayer.invalidate();
+    }
+
+    /**
+     * Places the rings inside the circle and sets up their gradients.
+     */
+    private void setupRingBounds() {
+        float circleInset = Math.max(mBarWidth, mRimWidth) / 2f + mInnerContourSize;
+        float ringsInset = 0;
+        for (int i = 0; i < mRings.size(); i++) {
+            CircleProgressRing ring = mRings.get(i);
+            ringsInset += mRingSpacing + ring.getBarWidth() / 2f;
+            ring.mBounds.set(mCircleBounds);
+            ring.mBounds.inset(circleInset + ringsInset, circleInset + ringsInset);
+            ringsInset += ring.getBarWidth() / 2f;
+            setupRingBarPaint(ring);
+        }
+        mTextCircleBounds.set(mCircleBounds);
+        mTextCircleBounds.inset(ringsInset, ringsInset);
+    }
+
+    private void setupRingBarPaint(CircleProgressRing _ring) {
+        int[] colors = _ring.getBarColors();
+        if (colors.length > 1) {
+            RectF bounds = _ring.mBounds;
+            SweepGradient gradient = new SweepGradient(bounds.centerX(), bounds.centerY(), colors, null);
+            Matrix matrix = new Matrix();
+            matrix.postRotate(mStartAngle, bounds.centerX(), bounds.centerY());
+            gradient.setLocalMatrix(matrix);
+            _ring.mBarPaint.setShader(gradient);
+        } else {
+            _ring.mBarPaint.setShader(null);
+        }
+        _ring.mBarPaint.setColor(colors[0]);
+    }
+
+    private void setupBarPaint() {
+        if (mBarColors.length > 1) {
+            // the RGB gradient is interpolated by the shader, other color spaces use the baked gradient as stops
+            int[] colors = mBarColorInterpolation == ColorInterpolation.RGB ? mBarColors : mBarColorLut;
+            mBarPaint.setShader(new SweepGradient(mCircleBounds.centerX(), mCircleBounds.centerY(), colors, null));
+            Matrix matrix = new Matrix();
+            mBarPaint.getShader().getLocalMatrix(matrix);
+
+            matrix.postTranslate(-mCircleBounds.centerX(), -mCircleBounds.centerY());
+            matrix.postRotate(mStartAngle);
+            matrix.postTranslate(mCircleBounds.centerX(), mCircleBounds.centerY());
+            mBarPaint.getShader().setLocalMatrix(matrix);
+            mBarPaint.setColor(mBarColors[0]);
+        } else if (mBarColors.length == 1) {
+            mBarPaint.setColor(mBarColors[0]);
+            mBarPaint.setShader(null);
+        } else {
+            mBarPaint.setColor(mBarColorStandard);
+            mBarPaint.setShader(null);
+        }
+
+        mBarPaint.setAntiAlias(true);
+        mBarPaint.setStrokeCap(mBarStrokeCap);
+        mBarPaint.setStyle(Style.STROKE);
+        mBarPaint.setStrokeWidth(mBarWidth);
+
+        mBarCapPaint.setAntiAlias(true);
+        mBarCapPaint.setStyle(Style.FILL);
+    }
+
+
+    /**
+     * Setup all paints.
+     * Call only if changes to color or size properties are not visible.
+     */
+    public void setupPaints() {
+        setupBarPaint();
+        setupBarSpinnerPaint();
+        setupOuterContourPaint();
+        setupInnerContourPaint();
+        setupUnitTextPaint();
+        setupTextPaint();
+        setupBackgroundCirclePaint();
+        setupRimPaint();
+        setupBarStartEndLinePaint();
+        mStaticLayer.invalidate();
+        invalidateSelf();
+    }
+
+    private void setupSegmentPaint(Paint _paint, int _color) {
+        _paint.setAntiAlias(true);
+        _paint.setStyle(Style.STROKE);
+        _paint.setStrokeWidth(mBarWidth);
+        _paint.setColor(_color);
+        _paint.setColorFilter(mColorFilter);
+    }
+
+    private void setupBarStartEndLinePaint() {
+        mBarStartEndLinePaint.setColor(mBarStartEndLineColor);
+        mBarStartEndLinePaint.setAntiAlias(true);
+        mBarStartEndLinePaint.setStyle(Style.STROKE);
+        mBarStartEndLinePaint.setStrokeWidth(mBarStartEndLineWidth);
+    }
+
+    private void setupOuterContourPaint() {
+        mOuterContourPaint.setColor(mOuterContourColor);
+        mOuterContourPaint.setAntiAlias(true);
+        mOuterContourPaint.setStyle(Style.STROKE);
+        mOuterContourPaint.setStrokeWidth(mOuterContourSize);
+    }
+
+    private void setupInnerContourPaint() {
+        mInnerContourPaint.setColor(mInnerContourColor);
+        mInnerContourPaint.setAntiAlias(true);
+        mInnerContourPaint.setStyle(Style.STROKE);
+        mInnerContourPaint.setStrokeWidth(mInnerContourSize);
+    }
+
+    private void setupUnitTextPaint() {
+        mUnitTextPaint.setStyle(Style.FILL);
+        mUnitTextPaint.setAntiAlias(true);
+        if (unitTextTypeface != null) {
+            mUnitTextPaint.setTypeface(unitTextTypeface);
+        }
+    }
+
+    private void setupTextPaint() {
+        mTextPaint.setSubpixelText(true);
+        mTextPaint.setLinearText(true);
+        mTextPaint.setTypeface(Typeface.MONOSPACE);
+        mTextPaint.setColor(mTextColor);
+        mTextPaint.setStyle(Style.FILL);
+        mTextPaint.setAntiAlias(true);
+        mTextPaint.setTextSize(mTextSize);
+        if (textTypeface != null) {
+            mTextPaint.setTypeface(textTypeface);
+        } else {
+            mTextPaint.setTypeface(Typeface.MONOSPACE);
+        }
+
+    }
+
+    private void setupBackgroundCirclePaint() {
+        mBackgroundCirclePaint.setColor(mBackgroundCircleColor);
+        mBackgroundCirclePaint.setAntiAlias(true);
+        mBackgroundCirclePaint.setStyle(Style.FILL);
+    }
+
+    private void setupRimPaint() {
+        mRimPaint.setColor(mRimColor);
+        mRimPaint.setAntiAlias(true);
+        mRimPaint.setStyle(Style.STROKE);
+        mRimPaint.setStrokeWidth(mRimWidth);
+    }
+
+    private void setupBarSpinnerPaint() {
+        mBarSpinnerPaint.setAntiAlias(true);
+        mBarSpinnerPaint.setStrokeCap(mSpinnerStrokeCap);
+        mBarSpinnerPaint.setStyle(Style.STROKE);
+        mBarSpinnerPaint.setStrokeWidth(mBarWidth);
+        mBarSpinnerPaint.setColor(mSpinnerColor);
+    }
+
+    //endregion Setting up stuff
+    //----------------------------------
+
+    //----------------------------------
+    //region draw all the things
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        boolean isLayer = mAlpha < 255;
+        if (isLayer) {
+            saveLayerAlpha(canvas);
+        }
+
+        if (DEBUG) {
+            drawDebug(canvas);
+        }
+
+        float degrees = (360f / mMaxValue * mValue);
+        mDrawnSweepPixels = calcSweepPixels(mValue);
+        mDrawnTextLength = -1; // set if the text is drawn
+
+        // Draw the background circle, rim and contours
+        Rect bounds = getBounds();
+        mStaticLayer.draw(canvas, bounds.right, bounds.bottom);
+
+        //Draw spinner
+        if (mAnimationState == AnimationState.SPINNING || mAnimationState == AnimationState.END_SPINNING) {
+            drawSpinner(canvas);
+            if (mShowTextWhileSpinning) {
+                drawTextWithUnit(canvas);
+            }
+
+        } else if (mAnimationState == AnimationState.END_SPINNING_START_ANIMATING) {
+            //draw spinning arc
+            drawSpinner(canvas);
+
+            if (mDrawBarWhileSpinning) {
+                drawBar(canvas, degrees);
+                drawTextWithUnit(canvas);
+            } else if (mShowTextWhileSpinning) {
+                drawTextWithUnit(canvas);
+            }
+
+        } else {
+            drawBar(canvas, degrees);
+            drawTextWithUnit(canvas);
+        }
+
+        if (mBarStartEndLineWidth > 0 && mBarStartEndLine != BarStartEndLine.NONE) {
+            drawStartEndLine(canvas, degrees);
+        }
+
+        drawRings(canvas);
+
+        if (isLayer) {
+            canvas.restore();
+        }
+
+    }
+
+    /**
+     * Draws all parts which do not change with the value or the animation. Recorded in the static layer.
+     */
+    private void drawStaticParts(Canvas canvas) {
+        // Draw the background circle
+        if (mBackgroundCircleColor != 0) {
+            canvas.drawArc(mInnerCircleBound, 360, 360, false, mBackgroundCirclePaint);
+        }
+        //Draw the rim
+        if (mRimWidth > 0) {
+            if (!mShowBlock) {
+                canvas.drawArc(mCircleBounds, 360, 360, false, mRimPaint);
+            } else {
+                updateBlockGeometry();
+                canvas.drawPath(mBlockRimPath, mRimPaint);
+            }
+        }
+
+        //Draw outer contour
+        if (mOuterContourSize > 0) {
+            canvas.drawArc(mCircleOuterContour, 360, 360, false, mOuterContourPaint);
+        }
+
+        //Draw outer contour
+        if (mInnerContourSize > 0) {
+            canvas.drawArc(mCircleInnerContour, 360, 360, false, mInnerContourPaint);
+        }
+
+        //Draw the rims of the rings
+        for (int i = 0; i < mRings.size(); i++) {
+            CircleProgressRing ring = mRings.get(i);
+            if (Color.alpha(ring.getRimColor()) != 0 && ring.getBarWidth() > 0) {
+                canvas.drawArc(ring.mBounds, 360, 360, false, ring.mRimPaint);
+            }
+        }
+    }
+
+    /**
+     * Draws the segments back to back from the start angle, with the precomputed sweeps.
+     */
+    private void drawSegments(Canvas _canvas) {
+        float angle = mStartAngle;
+        for (int i = 0; i < mSegmentCount; i++) {
+            float sweep = mSegmentSweeps[i];
+            if (sweep > 0) {
+                if (mDirection == Direction.CW) {
+                    _canvas.drawArc(mCircleBounds, angle, sweep, false, mSegmentPaints[i]);
+                    angle += sweep;
+                } else {
+                    angle -= sweep;
+                    _canvas.drawArc(mCircleBounds, angle, sweep, false, mSegmentPaints[i]);
+                }
+            }
+        }
+    }
+
+    private void drawRings(Canvas _canvas) {
+        for (int i = 0; i < mRings.size(); i++) {
+            CircleProgressRing ring = mRings.get(i);
+            float degrees = 360f / ring.getMaxValue() * ring.getCurrentValue();
+            if (degrees > 0 && ring.getBarWidth() > 0) {
+                float startAngle = mDirection == Direction.CW ? mStartAngle : mStartAngle - degrees;
+                _canvas.drawArc(ring.mBounds, startAngle, degrees, false, ring.mBarPaint);
+            }
+        }
+    }
+
+    private void drawStartEndLine(Canvas _canvas, float _degrees) {
+        if (_degrees == 0f)
+            return;
+
+        float startAngle = mDirection == Direction.CW ? mStartAngle : mStartAngle - _degrees;
+
+        startAngle -= mBarStartEndLineSweep / 2f;
+
+        if (mBarStartEndLine == BarStartEndLine.START || mBarStartEndLine == BarStartEndLine.BOTH) {
+            _canvas.drawArc(mCircleBounds, startAngle, mBarStartEndLineSweep, false, mBarStartEndLinePaint);
+        }
+
+        if (mBarStartEndLine == BarStartEndLine.END || mBarStartEndLine == BarStartEndLine.BOTH) {
+            _canvas.drawArc(mCircleBounds, startAngle + _degrees, mBarStartEndLineSweep, false, mBarStartEndLinePaint);
+        }
+    }
+
+    private void drawDebug(Canvas canvas) {
+        Paint innerRectPaint = new Paint();
+        innerRectPaint.setColor(Color.YELLOW);
+        canvas.drawRect(mCircleBounds, innerRectPaint);
+    }
+
+    /**
+     * Rebuilds the path of the rim blocks and the dash effect of the bar blocks,
+     * if block count, block scale, bounds or start angle changed.
+     */
+    private void updateBlockGeometry() {
+        if (mBlockGeometryValid) {
+            return;
+        }
+        mBlockRimPath.rewind();
+        float tmpDegree = 0.0f;
+        while (tmpDegree < 360) {
+            mBlockRimPath.addArc(mCircleBounds, mStartAngle + tmpDegree, Math.min(mBlockScaleDegree, 360 - tmpDegree));
+            tmpDegree += mBlockDegree;
+        }
+
+        // one dash interval per block, measured on the arc
+        float radius = mCircleBounds.width() / 2f;
+        float blockLength = (float) Math.toRadians(mBlockScaleDegree) * radius;
+        float gapLength = (float) Math.toRadians(mBlockDegree - mBlockScaleDegree) * radius;
+        if (blockLength > 0 && gapLength > 0) {
+            mBlockBarPathEffect = new DashPathEffect(new float[]{blockLength, gapLength}, 0);
+        } else {
+            mBlockBarPathEffect = null;
+        }
+        mBlockGeometryValid = true;
+    }
+
+    /**
+     * Draws the bar as blocks with a single dashed arc.
+     */
+    private void drawBarBlocks(Canvas _canvas, float startAngle, float _degrees) {
+        updateBlockGeometry();
+        if (_degrees <= 0 || mBlockScaleDegree <= 0) {
+            return;
+        }
+        // a sweep of 360 degree would be drawn as oval, which does not start at the start angle
+        float sweep = Math.min(_degrees, 359.99f);
+        if (mBlockBarPathEffect == null) {
+            // blocks without gaps
+            _canvas.drawArc(mCircleBounds, startAngle, sweep, false, mBarPaint);
+        } else {
+            mBarPaint.setPathEffect(mBlockBarPathEffect);
+            _canvas.drawArc(mCircleBounds, startAngle, sweep, false, mBarPaint);
+            mBarPaint.setPathEffect(null);
+        }
+    }
+
+    private void drawSpinner(Canvas canvas) {
+        float length = mSpinnerLength < 0 ? 1 : mSpinnerLength;
+
+        float startAngle;
+        if (mDirection == Direction.CW) {
+            startAngle = mStartAngle + mSpinnerDegree - length;
+        } else {
+            startAngle = mStartAngle - mSpinnerDegree;
+        }
+
+        canvas.drawArc(mCircleBounds, startAngle, length, false,
+                mBarSpinnerPaint);
+    }
+
+    private void drawTextWithUnit(Canvas canvas) {
+
+        final float relativeGapHeight;
+        final float relativeGapWidth;
+        final float relativeHeight;
+        final float relativeWidth;
+
+        switch (mUnitPosition) {
+            case TOP:
+            case BOTTOM:
+                relativeGapWidth = 0.05f; //gap size between text and unit
+                relativeGapHeight = 0.025f; //gap size between text and unit
+                relativeHeight = 0.25f * mRelativeUniteSize;
+                relativeWidth = 0.4f * mRelativeUniteSize;
+                break;
+            default:
+            case LEFT_TOP:
+            case RIGHT_TOP:
+            case LEFT_BOTTOM:
+            case RIGHT_BOTTOM:
+                relativeGapWidth = 0.05f; //gap size between text and unit
+                relativeGapHeight = 0.025f; //gap size between text and unit
+                relativeHeight = 0.55f * mRelativeUniteSize;
+                relativeWidth = 0.3f * mRelativeUniteSize;
+                break;
+        }
+
+        float unitGapWidthHalf = mOuterTextBounds.width() * relativeGapWidth / 2f;
+        float unitWidth = (mOuterTextBounds.width() * relativeWidth);
+
+        float unitGapHeightHalf = mOuterTextBounds.height() * relativeGapHeight / 2f;
+        float unitHeight = (mOuterTextBounds.height() * relativeHeight);
+
+
+        boolean update = false;
+        //Draw Text
+        if (mIsAutoColorEnabled) {
+            mTextPaint.setColor(calcTextColor(mValue));
+        }
+
+        //set text
+        prepareTextForValue(mValue);
+        char[] text = mFrameText;
+        int length = mFrameTextLength;
+
+
+        // only re-calc position and size if string length changed
+        if (mTextLength != length) {
+
+            update = true;
+            mTextLength = length;
+            calcInnerCircleRect(mTextCircleBounds, mOuterTextBounds);
+            if (mTextLength == 1) {
+                float insetX = mOuterTextBounds.width() * 0.1f;
+                mOuterTextBounds.left += insetX;
+                mOuterTextBounds.right -= insetX;
+            }
+            if (mIsAutoTextSize) {
+                setTextSizeAndTextBoundsWithAutoTextSize(unitGapWidthHalf, unitWidth, unitGapHeightHalf, unitHeight, text, length);
+
+            } else {
+                setTextSizeAndTextBoundsWithFixedTextSize(text, length);
+            }
+        }
+
+        if (DEBUG) {
+            Paint rectPaint = new Paint();
+            rectPaint.setColor(Color.MAGENTA);
+            canvas.drawRect(mOuterTextBounds, rectPaint);
+            rectPaint.setColor(Color.GREEN);
+            canvas.drawRect(mActualTextBounds, rectPaint);
+
+        }
+
+        canvas.drawText(text, 0, length, mActualTextBounds.left - (mTextPaint.getTextSize() * 0.02f), mActualTextBounds.bottom, mTextPaint);
+        setFrameTextDrawn();
+        mDrawnTextColor = mTextPaint.getColor();
+
+        if (mShowUnit) {
+
+            if (mIsAutoColorEnabled) {
+                mUnitTextPaint.setColor(calcTextColor(mValue));
+            }
+            if (update) {
+                //calc unit text position
+                if (mIsAutoTextSize) {
+                    setUnitTextBoundsAndSizeWithAutoTextSize(unitGapWidthHalf, unitWidth, unitGapHeightHalf, unitHeight);
+
+                } else {
+                    setUnitTextBoundsAndSizeWithFixedTextSize(unitGapWidthHalf * 2f, unitGapHeightHalf * 2f);
+                }
+            }
+
+            if (DEBUG) {
+                Paint rectPaint = new Paint();
+                rectPaint.setColor(Color.RED);
+                canvas.drawRect(mUnitBounds, rectPaint);
+            }
+
+            canvas.drawText(mUnit, mUnitBounds.left - (mUnitTextPaint.getTextSize() * 0.02f), mUnitBounds.bottom, mUnitTextPaint);
+        }
+    }
+
+    private void drawBar(Canvas _canvas, float _degrees) {
+        if (mSegmentCount > 0) {
+            drawSegments(_canvas);
+            return;
+        }
+        float startAngle = mDirection == Direction.CW ? mStartAngle : mStartAngle - _degrees;
+        if (!mShowBlock) {
+
+            if (mBarStrokeCap != Paint.Cap.BUTT && _degrees > 0 && mBarColors.length > 1) {
+                // a stroke cap would sample the gradient behind the start angle, which is the color of the end.
+                // draw the arc without caps in one pass and the caps in the color of the gradient at their angle
+                mBarPaint.setStrokeCap(Paint.Cap.BUTT);
+                _canvas.drawArc(mCircleBounds, startAngle, _degrees, false, mBarPaint);
+                mBarPaint.setStrokeCap(mBarStrokeCap);
+
+                float endPosition = _degrees / 360f;
+                if (mDirection == Direction.CW) {
+                    drawBarCap(_canvas, startAngle, true, mBarColorLut[0]);
+                    drawBarCap(_canvas, startAngle + _degrees, false, mBarColorLut[Math.round(endPosition * (COLOR_LUT_SIZE - 1))]);
+                } else {
+                    drawBarCap(_canvas, startAngle, true, mBarColorLut[Math.round((1f - endPosition) * (COLOR_LUT_SIZE - 1))]);
+                    drawBarCap(_canvas, startAngle + _degrees, false, mBarColorLut[COLOR_LUT_SIZE - 1]);
+                }
+
+            } else {
+                _canvas.drawArc(mCircleBounds, startAngle, _degrees, false, mBarPaint);
+            }
+        } else {
+            drawBarBlocks(_canvas, startAngle, _degrees);
+        }
+    }
+
+    /**
+     * Draws a round or square cap at the end of the bar.
+     *
+     * @param _angle   The angle of the end of the bar.
+     * @param _isStart True for the end at the start of the arc, the cap extends counter-clockwise.
+     * @param _color   The color of the cap.
+     */
+    private void drawBarCap(Canvas _canvas, float _angle, boolean _isStart, int _color) {
+        float radius = mCircleBounds.width() / 2f;
+        float halfWidth = mBarWidth / 2f;
+        float centerX = mCircleBounds.centerX();
+        float centerY = mCircleBounds.centerY();
+        float capX = centerX + radius;
+
+        mBarCapPaint.setColor(_color);
+        _canvas.save();
+        // rotate so that the end of the bar is on the right of the center, the arc continues downwards from there
+        _canvas.rotate(_angle, centerX, centerY);
+        if (mBarStrokeCap == Paint.Cap.ROUND) {
+            mBarCapBounds.set(capX - halfWidth, centerY - halfWidth, capX + halfWidth, centerY + halfWidth);
+            _canvas.drawArc(mBarCapBounds, _isStart ? 180 : 0, 180, true, mBarCapPaint);
+        } else {
+            _canvas.drawRect(capX - halfWidth, _isStart ? centerY - halfWidth : centerY, capX + halfWidth, _isStart ? centerY : centerY + halfWidth, mBarCapPaint);
+        }
+        _canvas.restore();
+    }
+
+    //endregion draw
+    //----------------------------------
+}
@@ -0,0 +1,785 @@
+package at.grabner.circleprogress;
+
+import android.animation.TimeInterpolator;
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.Rect;
+import android.graphics.RecordingCanvas;
+import android.graphics.RectF;
+import android.graphics.RenderNode;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import androidx.annotation.ColorInt;
+import androidx.annotation.FloatRange;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+/**
+ * Shows many simple progress circles in a grid, e.g. for a dashboard with hundreds of gauges.
+ * <p/>
+ * The values are stored in a primitive array and the cells are laid out arithmetically, there are no child views.
+ * All cells share one set of paints and one style, only cells within the clip bounds are drawn. All value animations
+ * are driven by one frame clock, which only visits the animated cells and marks the changed cells as dirty.
+ * <p/>
+ * On hardware accelerated canvases on API 29+, each cell is recorded into its own {@link RenderNode} and only the
+ * dirty cells are recorded again, so the cost of a frame scales with the number of changed cells. Otherwise, the
+ * bounds of the changed cells are invalidated, which limits the redrawn cells only for software rendering: with
+ * hardware acceleration below API 29, all visible cells are drawn again on each frame.
+ * <p/>
+ * The animations are suspended while the view is not visible.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+@SuppressWarnings("unused")
+public class CircleProgressGridView extends View {
+
+    private static final long DEFAULT_VALUE_ANIMATION_DURATION = 900;
+    // size of the text relative to the inner diameter of a cell
+    private static final float TEXT_SIZE_FACTOR = 0.35f;
+
+    //values
+    private int mCellCount = 0;
+    private float[] mValues = new float[0];
+    private float[] mValuesFrom = new float[0];
+    private float[] mValuesTo = new float[0];
+    private float mMaxValue = 100;
+
+    //value animation
+    // the start time is set on the first frame of the animation, -1 till then
+    private long[] mAnimationStartTimes = new long[0];
+    private boolean[] mAnimating = new boolean[0];
+    // indices of the animated cells, the first mAnimatingCount entries are valid
+    private int[] mAnimatingCells = new int[0];
+    private int mAnimatingCount = 0;
+    private long mAnimationDuration = DEFAULT_VALUE_ANIMATION_DURATION;
+    private TimeInterpolator mInterpolator = new AccelerateDecelerateInterpolator();
+    // the animations are suspended if the view is detached or invisible
+    private boolean mIsAttached = false;
+    private boolean mIsWindowVisible = true;
+    private boolean mSuspended = true;
+    private long mSuspendTime = -1;
+
+    // union of the bounds of the cells changed since the last invalidation
+    private final RectF mDirtyBounds = new RectF();
+    // one display list per cell on hardware accelerated canvases on API 29+, created on the first draw
+    private RenderNode[] mCellNodes;
+    // false if the cell changed since its display list was recorded
+    private boolean[] mCellNodeValid = new boolean[0];
+
+    //layout
+    private int mColumnCount = 4;
+    private int mCellSpacing = 8;
+    private float mCellSize = 0;
+
+    //style
+    private int mBarWidth = 10;
+    private int mStartAngle = 270;
+    private Direction mDirection = Direction.CW;
+    private int mBarColor = 0xff009688; //stylish blue
+    private int mRimColor = 0xAA83d0c9;
+    private int mTextColor = 0xFF000000;
+    private int mCellBackgroundColor = 0x00000000; //transparent
+    private boolean mShowText = true;
+    private FastDecimalFormat mTextFormat = new FastDecimalFormat(new DecimalFormat("0"));
+    private float mTextOffsetY = 0;
+
+    //Paints, shared by all cells
+    private final Paint mBarPaint = new Paint();
+    private final Paint mRimPaint = new Paint();
+    private final Paint mTextPaint = new Paint();
+    private final Paint mBackgroundPaint = new Paint();
+
+    private final RectF mCellBounds = new RectF();
+    private final Rect mClipBounds = new Rect();
+
+    private final AnimationTicker.FrameListener mFrameListener = new AnimationTicker.FrameListener() {
+        private boolean mTickerRegistered = false;
+
+        @Override
+        public void doAnimationFrame(long _frameTimeMillis) {
+            calcNextAnimationValues(_frameTimeMillis);
+        }
+
+        @Override
+        public boolean isTickerRegistered() {
+            return mTickerRegistered;
+        }
+
+        @Override
+        public void setTickerRegistered(boolean _registered) {
+            mTickerRegistered = _registered;
+        }
+    };
+
+    public CircleProgressGridView(Context context) {
+        this(context, null);
+    }
+
+    public CircleProgressGridView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setupPaints();
+    }
+
+    //----------------------------------
+    //region values
+
+    public int getCellCount() {
+        return mCellCount;
+    }
+
+    /**
+     * Sets the number of cells. The values of the existing cells are kept, new cells start at 0.
+     *
+     * @param _cellCount The number of cells.
+     */
+    public void setCellCount(@IntRange(from = 0) int _cellCount) {
+        if (_cellCount < 0) {
+            throw new IllegalArgumentException("cellCount must be >= 0!");
+        }
+        if (_cellCount == mCellCount) {
+            return;
+        }
+        mValues = copyOf(mValues, _cellCount);
+        mValuesFrom = copyOf(mValuesFrom, _cellCount);
+        mValuesTo = copyOf(mValuesTo, _cellCount);
+        mAnimationStartTimes = new long[_cellCount];
+        mAnimating = new boolean[_cellCount];
+        mAnimatingCells = new int[_cellCount];
+        mAnimatingCount = 0;
+        mCellCount = _cellCount;
+        releaseCellNodes();
+        mCellNodes = null;
+        mCellNodeValid = new boolean[_cellCount];
+        // stop all animations, the values are kept at the current state
+        System.arraycopy(mValues, 0, mValuesTo, 0, _cellCount);
+        AnimationTicker.getInstance().unregister(mFrameListener);
+        requestLayout();
+        invalidateAll();
+    }
+
+    /**
+     * @param _index The index of the cell.
+     * @return The current value of the cell, e.g. during an animation.
+     */
+    public float getValue(int _index) {
+        checkIndex(_index);
+        return mValues[_index];
+    }
+
+    /**
+     * Sets the value of a cell without an animation. Stops a running animation of the cell.
+     *
+     * @param _index The index of the cell.
+     * @param _value The value.
+     */
+    public void setValue(int _index, float _value) {
+        checkIndex(_index);
+        if (mAnimating[_index]) {
+            stopAnimation(_index);
+        }
+        mValuesTo[_index] = _value;
+        if (mValues[_index] != _value) {
+            mValues[_index] = _value;
+            markDirty(_index);
+            invalidateDirtyCells();
+        }
+    }
+
+    /**
+     * Sets the value of a cell with an animation, starting at the current value of the cell.
+     *
+     * @param _index   The index of the cell.
+     * @param _valueTo The value after the animation.
+     */
+    public void setValueAnimated(int _index, float _valueTo) {
+        checkIndex(_index);
+        if (mValues[_index] == _valueTo && !mAnimating[_index]) {
+            return;
+        }
+        mValuesFrom[_index] = mValues[_index];
+        mValuesTo[_index] = _valueTo;
+        mAnimationStartTimes[_index] = -1;
+        if (!mAnimating[_index]) {
+            mAnimating[_index] = true;
+            mAnimatingCells[mAnimatingCount++] = _index;
+        }
+        if (!mSuspended) {
+            // otherwise the animation starts when the view is visible
+            AnimationTicker.getInstance().register(mFrameListener);
+        }
+    }
+
+    /**
+     * Sets the values of all cells without an animation. The cell count is set to the length of the array.
+     *
+     * @param _values The values, copied into the view.
+     */
+    public void setValues(@NonNull float[] _values) {
+        setCellCount(_values.length);
+        for (int i = 0; i < _values.length; i++) {
+            setValue(i, _values[i]);
+        }
+    }
+
+    /**
+     * Sets the values of all cells with an animation. Cells which already show their value are not animated.
+     *
+     * @param _values The values after the animation, one for each cell.
+     */
+    public void setValuesAnimated(@NonNull float[] _values) {
+        if (_values.length != mCellCount) {
+            throw new IllegalArgumentException("values must contain one value for each cell!");
+        }
+        for (int i = 0; i < _values.length; i++) {
+            if (mValuesTo[i] != _values[i]) {
+                setValueAnimated(i, _values[i]);
+            }
+        }
+    }
+
+    public float getMaxValue() {
+        return mMaxValue;
+    }
+
+    /**
+     * @param _maxValue The max value of all cells. Default: 100
+     */
+    public void setMaxValue(@FloatRange(from = 0) float _maxValue) {
+        mMaxValue = _maxValue;
+        invalidateAll();
+    }
+
+    public long getValueAnimationDuration() {
+        return mAnimationDuration;
+    }
+
+    /**
+     * @param _animationDuration The duration of value animations in milliseconds. Default: 900
+     */
+    public void setValueAnimationDuration(@IntRange(from = 0) long _animationDuration) {
+        mAnimationDuration = _animationDuration;
+    }
+
+    /**
+     * @param _interpolator The interpolator of value animations. Default: AccelerateDecelerateInterpolator
+     */
+    public void setValueInterpolator(@NonNull TimeInterpolator _interpolator) {
+        mInterpolator = _interpolator;
+    }
+
+    /**
+     * @return true if a value animation of at least one cell is running.
+     */
+    public boolean isAnimating() {
+        return mAnimatingCount > 0;
+    }
+
+    //endregion values
+    //----------------------------------
+
+    //----------------------------------
+    //region layout
+
+    public int getColumnCount() {
+        return mColumnCount;
+    }
+
+    /**
+     * @param _columnCount The number of cells in a row. Default: 4
+     */
+    public void setColumnCount(@IntRange(from = 1) int _columnCount) {
+        if (_columnCount <= 0) {
+            throw new IllegalArgumentException("columnCount must be > 0!");
+        }
+        mColumnCount = _columnCount;
+        requestLayout();
+        setupCellSize(getWidth());
+        invalidateAll();
+    }
+
+    public int getCellSpacing() {
+        return mCellSpacing;
+    }
+
+    /**
+     * @param _cellSpacing The space between the cells in pixel. Default: 8
+     */
+    public void setCellSpacing(@IntRange(from = 0) int _cellSpacing) {
+        mCellSpacing = _cellSpacing;
+        requestLayout();
+        setupCellSize(getWidth());
+        invalidateAll();
+    }
+
+    /**
+     * @return The size of a cell in pixel, 0 before the view is laid out.
+     */
+    public float getCellSize() {
+        return mCellSize;
+    }
+
+    /**
+     * @param _x The x position in the view, e.g. of a touch event.
+     * @param _y The y position in the view.
+     * @return The index of the cell at the position or -1 if there is no cell.
+     */
+    public int getCellIndexAt(float _x, float _y) {
+        if (mCellSize <= 0) {
+            return -1;
+        }
+        float step = mCellSize + mCellSpacing;
+        float x = _x - getPaddingLeft();
+        float y = _y - getPaddingTop();
+        if (x < 0 || y < 0) {
+            return -1;
+        }
+        int column = (int) (x / step);
+        int row = (int) (y / step);
+        if (column >= mColumnCount || x - column * step > mCellSize || y - row * step > mCellSize) {
+            return -1; // outside of the grid or within the spacing
+        }
+        int index = row * mColumnCount + column;
+        return index < mCellCount ? index : -1;
+    }
+
+    //endregion layout
+    //----------------------------------
+
+    //----------------------------------
+    //region style
+
+    public int getBarWidth() {
+        return mBarWidth;
+    }
+
+    /**
+     * @param _barWidth The width of the bar and the rim of all cells in pixel. Default: 10
+     */
+    public void setBarWidth(@IntRange(from = 0) int _barWidth) {
+        mBarWidth = _barWidth;
+        mBarPaint.setStrokeWidth(_barWidth);
+        mRimPaint.setStrokeWidth(_barWidth);
+        setupTextSize();
+        invalidateAll();
+    }
+
+    public int getBarColor() {
+        return mBarColor;
+    }
+
+    public void setBarColor(@ColorInt int _barColor) {
+        mBarColor = _barColor;
+        mBarPaint.setColor(_barColor);
+        invalidateAll();
+    }
+
+    public int getRimColor() {
+        return mRimColor;
+    }
+
+    public void setRimColor(@ColorInt int _rimColor) {
+        mRimColor = _rimColor;
+        mRimPaint.setColor(_rimColor);
+        invalidateAll();
+    }
+
+    public int getTextColor() {
+        return mTextColor;
+    }
+
+    public void setTextColor(@ColorInt int _textColor) {
+        mTextColor = _textColor;
+        mTextPaint.setColor(_textColor);
+        invalidateAll();
+    }
+
+    public int getCellBackgroundColor() {
+        return mCellBackgroundColor;
+    }
+
+    /**
+     * @param _cellBackgroundColor The color of the circle of each cell. Default: transparent
+     */
+    public void setCellBackgroundColor(@ColorInt int _cellBackgroundColor) {
+        mCellBackgroundColor = _cellBackgroundColor;
+        mBackgroundPaint.setColor(_cellBackgroundColor);
+        invalidateAll();
+    }
+
+    public boolean isShowText() {
+        return mShowText;
+    }
+
+    /**
+     * @param _showText true to show the value in the center of each cell. Default: true
+     */
+    public void setShowText(boolean _showText) {
+        mShowText = _showText;
+        invalidateAll();
+    }
+
+    public DecimalFormat getDecimalFormat() {
+        return mTextFormat.getDecimalFormat();
+    }
+
+    /**
+     * @param _decimalFormat The format of the value text of all cells. Default: "0"
+     */
+    public void setDecimalFormat(@NonNull DecimalFormat _decimalFormat) {
+        mTextFormat = new FastDecimalFormat(_decimalFormat);
+        invalidateAll();
+    }
+
+    public int getStartAngle() {
+        return mStartAngle;
+    }
+
+    /**
+     * @param _startAngle The angle in degree where the bars start. Default: 270 (top)
+     */
+    public void setStartAngle(@IntRange(from = 0, to = 360) int _startAngle) {
+        mStartAngle = (int) CircleProgressDrawable.normalizeAngle(_startAngle);
+        invalidateAll();
+    }
+
+    public Direction getDirection() {
+        return mDirection;
+    }
+
+    public void setDirection(@NonNull Direction _direction) {
+        mDirection = _direction;
+        invalidateAll();
+    }
+
+    //endregion style
+    //----------------------------------
+
+    private void setupPaints() {
+        mBarPaint.setAntiAlias(true);
+        mBarPaint.setStyle(Style.STROKE);
+        mBarPaint.setStrokeWidth(mBarWidth);
+        mBarPaint.setColor(mBarColor);
+
+        mRimPaint.setAntiAlias(true);
+        mRimPaint.setStyle(Style.STROKE);
+        mRimPaint.setStrokeWidth(mBarWidth);
+        mRimPaint.setColor(mRimColor);
+
+        mBackgroundPaint.setAntiAlias(true);
+        mBackgroundPaint.setStyle(Style.FILL);
+        mBackgroundPaint.setColor(mCellBackgroundColor);
+
+        mTextPaint.setAntiAlias(true);
+        mTextPaint.setStyle(Style.FILL);
+        mTextPaint.setTextAlign(Paint.Align.CENTER);
+        mTextPaint.setColor(mTextColor);
+    }
+
+    private void setupCellSize(int _width) {
+        int contentWidth = _width - getPaddingLeft() - getPaddingRight();
+        mCellSize = Math.max(0f, (float) (contentWidth - mCellSpacing * (mColumnCount - 1)) / mColumnCount);
+        setupTextSize();
+        // the positions of the cells may have changed, e.g. by the padding
+        Arrays.fill(mCellNodeValid, false);
+    }
+
+    private void setupTextSize() {
+        mTextPaint.setTextSize(Math.max(0f, mCellSize - 2 * mBarWidth) * TEXT_SIZE_FACTOR);
+        // centers the text vertically
+        mTextOffsetY = -(mTextPaint.ascent() + mTextPaint.descent()) / 2f;
+    }
+
+    private int getRowCount() {
+        return (mCellCount + mColumnCount - 1) / mColumnCount;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        setupCellSize(width);
+        int rows = getRowCount();
+        int contentHeight = (int) Math.ceil(rows * mCellSize + Math.max(0, rows - 1) * mCellSpacing);
+        int height = resolveSize(contentHeight + getPaddingTop() + getPaddingBottom(), heightMeasureSpec);
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        setupCellSize(w);
+        invalidateAll();
+    }
+
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mIsAttached = true;
+        updateAnimationSuspended();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mIsAttached = false;
+        updateAnimationSuspended();
+        releaseCellNodes();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAnimationSuspended();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mIsWindowVisible = visibility == VISIBLE;
+        updateAnimationSuspended();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        updateAnimationSuspended();
+    }
+
+    /**
+     * Suspends the animations while the view is not visible. On resume, they continue with the phase
+     * they had when they were suspended.
+     */
+    private void updateAnimationSuspended() {
+        boolean suspended = !(mIsAttached && mIsWindowVisible && isShown());
+        if (suspended == mSuspended) {
+            return;
+        }
+        mSuspended = suspended;
+        if (suspended) {
+            AnimationTicker.getInstance().unregister(mFrameListener);
+            mSuspendTime = SystemClock.uptimeMillis();
+            return;
+        }
+        if (mAnimatingCount > 0) {
+            if (mSuspendTime >= 0) {
+                long offset = SystemClock.uptimeMillis() - mSuspendTime;
+                for (int i = 0; i < mAnimatingCount; i++) {
+                    int index = mAnimatingCells[i];
+                    if (mAnimationStartTimes[index] >= 0) {
+                        mAnimationStartTimes[index] += offset;
+                    }
+                }
+            }
+            AnimationTicker.getInstance().register(mFrameListener);
+        }
+        mSuspendTime = -1;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mCellSize <= 0 || mCellCount == 0) {
+            return;
+        }
+        // only the rows and columns within the clip bounds, e.g. of a partial invalidation or a scroll container
+        if (!canvas.getClipBounds(mClipBounds)) {
+            return;
+        }
+        float step = mCellSize + mCellSpacing;
+        int firstRow = Math.max(0, (int) ((mClipBounds.top - getPaddingTop()) / step));
+        int lastRow = Math.min(getRowCount() - 1, (int) ((mClipBounds.bottom - getPaddingTop()) / step));
+        int firstColumn = Math.max(0, (int) ((mClipBounds.left - getPaddingLeft()) / step));
+        int lastColumn = Math.min(mColumnCount - 1, (int) ((mClipBounds.right - getPaddingLeft()) / step));
+        boolean useCellNodes = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int index = row * mColumnCount + column;
+                if (index >= mCellCount) {
+                    break;
+                }
+                if (useCellNodes) {
+                    drawCellNode(canvas, index);
+                } else {
+                    drawCell(canvas, index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the display list of the cell, records it first if the cell is dirty.
+     */
+    @TargetApi(Build.VERSION_CODES.Q)
+    private void drawCellNode(Canvas _canvas, int _index) {
+        if (mCellNodes == null) {
+            mCellNodes = new RenderNode[mCellCount];
+        }
+        RenderNode node = mCellNodes[_index];
+        if (node == null) {
+            node = new RenderNode("CircleProgressGridViewCell");
+            mCellNodes[_index] = node;
+            mCellNodeValid[_index] = false;
+        }
+        if (!mCellNodeValid[_index] || !node.hasDisplayList()) {
+            calcCellBounds(_index);
+            // one extra pixel for the anti aliasing at the edges of the cell
+            int left = (int) Math.floor(mCellBounds.left) - 1;
+            int top = (int) Math.floor(mCellBounds.top) - 1;
+            node.setPosition(left, top, (int) Math.ceil(mCellBounds.right) + 1, (int) Math.ceil(mCellBounds.bottom) + 1);
+            RecordingCanvas recordingCanvas = node.beginRecording();
+            try {
+                recordingCanvas.translate(-left, -top);
+                drawCell(recordingCanvas, _index);
+            } finally {
+                node.endRecording();
+            }
+            mCellNodeValid[_index] = true;
+        }
+        _canvas.drawRenderNode(node);
+    }
+
+    /**
+     * Discards the display lists of all cells, they are recorded again on the next draw.
+     */
+    private void releaseCellNodes() {
+        Arrays.fill(mCellNodeValid, false);
+        if (mCellNodes != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            for (RenderNode node : mCellNodes) {
+                if (node != null) {
+                    node.discardDisplayList();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets {@link #mCellBounds} to the bounds of the cell.
+     */
+    private void calcCellBounds(int _index) {
+        float step = mCellSize + mCellSpacing;
+        float left = getPaddingLeft() + (_index % mColumnCount) * step;
+        float top = getPaddingTop() + (_index / mColumnCount) * step;
+        mCellBounds.set(left, top, left + mCellSize, top + mCellSize);
+    }
+
+    private void drawCell(Canvas _canvas, int _index) {
+        calcCellBounds(_index);
+        float cx = mCellBounds.centerX();
+        float cy = mCellBounds.centerY();
+        float inset = mBarWidth / 2f;
+        mCellBounds.inset(inset, inset);
+
+        if (mCellBackgroundColor != Color.TRANSPARENT) {
+            _canvas.drawCircle(cx, cy, mCellBounds.width() / 2f, mBackgroundPaint);
+        }
+        if (mRimColor != Color.TRANSPARENT) {
+            _canvas.drawArc(mCellBounds, 360, 360, false, mRimPaint);
+        }
+
+        float value = mValues[_index];
+        float degrees = mMaxValue > 0 ? Math.max(0f, Math.min(value / mMaxValue, 1f)) * 360f : 0f;
+        if (degrees > 0) {
+            _canvas.drawArc(mCellBounds, mStartAngle, mDirection == Direction.CW ? degrees : -degrees, false, mBarPaint);
+        }
+
+        if (mShowText) {
+            int length = mTextFormat.format(value);
+            _canvas.drawText(mTextFormat.getChars(), 0, length, cx, cy + mTextOffsetY, mTextPaint);
+        }
+    }
+
+    private void markDirty(int _index) {
+        mCellNodeValid[_index] = false;
+        calcCellBounds(_index);
+        mDirtyBounds.union(mCellBounds);
+    }
+
+    /**
+     * Invalidates the bounds of the changed cells. The bounds are ignored with hardware acceleration, there only
+     * the display lists of the dirty cells are recorded again, see {@link #drawCellNode(Canvas, int)}.
+     */
+    @SuppressWarnings("deprecation")
+    private void invalidateDirtyCells() {
+        if (mDirtyBounds.isEmpty()) {
+            return;
+        }
+        invalidate((int) Math.floor(mDirtyBounds.left), (int) Math.floor(mDirtyBounds.top),
+                (int) Math.ceil(mDirtyBounds.right), (int) Math.ceil(mDirtyBounds.bottom));
+        mDirtyBounds.setEmpty();
+    }
+
+    private void invalidateAll() {
+        mDirtyBounds.setEmpty();
+        Arrays.fill(mCellNodeValid, false);
+        invalidate();
+    }
+
+    /**
+     * Calculates the values of all animated cells for the given frame and marks them as dirty.
+     * Cells which are not animated are not touched.
+     */
+    private void calcNextAnimationValues(long _frameTime) {
+        int count = 0;
+        for (int i = 0; i < mAnimatingCount; i++) {
+            int index = mAnimatingCells[i];
+            if (mAnimationStartTimes[index] < 0) {
+                mAnimationStartTimes[index] = _frameTime;
+            }
+            float t = mAnimationDuration > 0 ? (float) (_frameTime - mAnimationStartTimes[index]) / mAnimationDuration : 1f;
+            float value;
+            if (t >= 1f) {
+                value = mValuesTo[index];
+                mAnimating[index] = false;
+            } else {
+                float from = mValuesFrom[index];
+                value = from + (mValuesTo[index] - from) * mInterpolator.getInterpolation(Math.max(0f, t));
+                // keep the running animations at the start of the list
+                mAnimatingCells[count++] = index;
+            }
+            if (mValues[index] != value) {
+                mValues[index] = value;
+                markDirty(index);
+            }
+        }
+        mAnimatingCount = count;
+        if (count == 0) {
+            AnimationTicker.getInstance().unregister(mFrameListener);
+        }
+        invalidateDirtyCells();
+    }
+
+    private void stopAnimation(int _index) {
+        mAnimating[_index] = false;
+        for (int i = 0; i < mAnimatingCount; i++) {
+            if (mAnimatingCells[i] == _index) {
+                mAnimatingCells[i] = mAnimatingCells[--mAnimatingCount];
+                break;
+            }
+        }
+        if (mAnimatingCount == 0) {
+            AnimationTicker.getInstance().unregister(mFrameListener);
+        }
+    }
+
+    private void checkIndex(int _index) {
+        if (_index < 0 || _index >= mCellCount) {
+            throw new IndexOutOfBoundsException("index " + _index + " is out of range [0, " + mCellCount + ")");
+        }
+    }
+
+    private static float[] copyOf(float[] _array, int _length) {
+        float[] copy = new float[_length];
+        System.arraycopy(_array, 0, copy, 0, Math.min(_array.length, _length));
+        return copy;
+    }
+}
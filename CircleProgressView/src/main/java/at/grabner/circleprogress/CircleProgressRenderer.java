@@ -0,0 +1,142 @@
+package at.grabner.circleprogress;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Renders progress circles offscreen, without a view, e.g. for notification icons or thumbnails.
+ * <p/>
+ * The style is set on the {@link CircleProgressDrawable} returned by {@link #getDrawable()}.
+ * Paints, shaders, the static layer and the text measurements of the drawable are reused for all
+ * rendered values, as long as the style and the size do not change. The values are rendered into
+ * one reusable bitmap or into a canvas of the caller.
+ * <p/>
+ * The renderer needs no {@link android.os.Looper} and can be used on a background thread.
+ * It is not thread safe, use one renderer per thread.
+ */
+@SuppressWarnings("unused")
+public class CircleProgressRenderer {
+
+    public interface OnFrameRenderedListener {
+
+        /**
+         * Called for every value of a batch, see {@link #render(float[], OnFrameRenderedListener)}.
+         *
+         * @param _index  The index of the value.
+         * @param _value  The value.
+         * @param _bitmap The rendered value. The bitmap is reused for the next value, copy it to keep it.
+         */
+        void onFrameRendered(int _index, float _value, Bitmap _bitmap);
+    }
+
+    private final CircleProgressDrawable mDrawable;
+    private int mWidth;
+    private int mHeight;
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+
+    /**
+     * @param _width  The width of the rendered images in pixel.
+     * @param _height The height of the rendered images in pixel.
+     */
+    public CircleProgressRenderer(@IntRange(from = 1) int _width, @IntRange(from = 1) int _height) {
+        this(new CircleProgressDrawable(), _width, _height);
+    }
+
+    /**
+     * @param _drawable The drawable which defines the style. Its bounds are set to the size of the renderer.
+     * @param _width    The width of the rendered images in pixel.
+     * @param _height   The height of the rendered images in pixel.
+     */
+    public CircleProgressRenderer(@NonNull CircleProgressDrawable _drawable, @IntRange(from = 1) int _width, @IntRange(from = 1) int _height) {
+        mDrawable = _drawable;
+        setSize(_width, _height);
+    }
+
+    /**
+     * @return The drawable used for rendering. Change the style of the rendered images with its setters.
+     */
+    public CircleProgressDrawable getDrawable() {
+        return mDrawable;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Sets the size of the rendered images. The bitmap is created again on the next call of {@link #render(float)}.
+     *
+     * @param _width  The width in pixel.
+     * @param _height The height in pixel.
+     */
+    public void setSize(@IntRange(from = 1) int _width, @IntRange(from = 1) int _height) {
+        if (_width <= 0 || _height <= 0) {
+            throw new IllegalArgumentException("width and height must be > 0!");
+        }
+        mWidth = _width;
+        mHeight = _height;
+        mDrawable.setBounds(0, 0, _width, _height);
+    }
+
+    /**
+     * Renders the value into the bitmap of the renderer.
+     *
+     * @param _value The value to render.
+     * @return The bitmap of the renderer. It is overwritten by the next call, copy it to keep it.
+     */
+    public Bitmap render(float _value) {
+        if (mBitmap == null || mBitmap.getWidth() != mWidth || mBitmap.getHeight() != mHeight) {
+            if (mBitmap != null) {
+                mBitmap.recycle();
+            }
+            mBitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+            mCanvas = new Canvas(mBitmap);
+        } else {
+            mBitmap.eraseColor(Color.TRANSPARENT);
+        }
+        render(_value, mCanvas);
+        return mBitmap;
+    }
+
+    /**
+     * Renders the value into the given canvas, within the bounds (0, 0, width, height).
+     *
+     * @param _value  The value to render.
+     * @param _canvas The canvas to draw on, e.g. a canvas of a bitmap of the caller.
+     */
+    public void render(float _value, @NonNull Canvas _canvas) {
+        mDrawable.setValue(_value);
+        mDrawable.draw(_canvas);
+    }
+
+    /**
+     * Renders all values one after the other into the bitmap of the renderer.
+     *
+     * @param _values   The values to render.
+     * @param _listener Receives the bitmap of each value.
+     */
+    public void render(@NonNull float[] _values, @NonNull OnFrameRenderedListener _listener) {
+        for (int i = 0; i < _values.length; i++) {
+            _listener.onFrameRendered(i, _values[i], render(_values[i]));
+        }
+    }
+
+    /**
+     * Releases the bitmap of the renderer. The renderer can still be used, the bitmap is created again if needed.
+     */
+    public void recycle() {
+        if (mBitmap != null) {
+            mBitmap.recycle();
+            mBitmap = null;
+            mCanvas = null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package at.grabner.circleprogress;
+
+import android.animation.TimeInterpolator;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.RectF;
+import androidx.annotation.ColorInt;
+import androidx.annotation.FloatRange;
+import androidx.annotation.IntRange;
+
+/**
+ * An additional ring drawn inside the circle of a {@link CircleProgressView} or {@link CircleProgressDrawable},
+ * e.g. to show several metrics in one view.
+ * <p/>
+ * Each ring has its own value, max value, colors and width. Rings are drawn from the outside to the inside,
+ * in the order they were added. All rings of a view are drawn in the same draw pass and animated by the
+ * same animation tick as the view, so the cost grows with the number of rings, not with the number of views.
+ * <p/>
+ * A ring can only be added to one view or drawable. Must only be used from the main thread if added to a view.
+ */
+@SuppressWarnings("unused")
+public class CircleProgressRing {
+
+    private static final long DEFAULT_VALUE_ANIMATION_DURATION = 1200;
+
+    //value
+    private float mCurrentValue = 0;
+    private float mValueFrom = 0;
+    private float mValueTo = 0;
+    private float mMaxValue = 100;
+    //value animation
+    private boolean mAnimating = false;
+    // the start time is set on the first frame of the animation, -1 till then
+    private long mAnimationStartTime = -1;
+    private long mAnimationDuration = DEFAULT_VALUE_ANIMATION_DURATION;
+
+    //style
+    private int mBarWidth = 20;
+    private int[] mBarColors = new int[]{0xff009688}; //stylish blue
+    private int mRimColor = 0x00000000; //transparent
+    private Paint.Cap mBarStrokeCap = Paint.Cap.BUTT;
+
+    // set by the drawable
+    final Paint mBarPaint = new Paint();
+    final Paint mRimPaint = new Paint();
+    final RectF mBounds = new RectF();
+    CircleProgressDrawable mOwner;
+
+    public CircleProgressRing() {
+        mBarPaint.setAntiAlias(true);
+        mBarPaint.setStyle(Style.STROKE);
+        mBarPaint.setStrokeWidth(mBarWidth);
+        mBarPaint.setColor(mBarColors[0]);
+        mRimPaint.setAntiAlias(true);
+        mRimPaint.setStyle(Style.STROKE);
+        mRimPaint.setStrokeWidth(mBarWidth);
+        mRimPaint.setColor(mRimColor);
+    }
+
+    //----------------------------------
+    //region getter/setter
+
+    public float getCurrentValue() {
+        return mCurrentValue;
+    }
+
+    /**
+     * Sets the value of the ring without an animation. Stops a running animation of the ring.
+     *
+     * @param _value The value.
+     */
+    public void setValue(float _value) {
+        mAnimating = false;
+        mCurrentValue = mValueFrom = mValueTo = _value;
+        if (mOwner != null) {
+            mOwner.invalidateSelf();
+        }
+    }
+
+    /**
+     * Sets the value of the ring with an animation, starting at the current value.
+     *
+     * @param _valueTo The value after the animation.
+     */
+    public void setValueAnimated(float _valueTo) {
+        setValueAnimated(_valueTo, DEFAULT_VALUE_ANIMATION_DURATION);
+    }
+
+    /**
+     * Sets the value of the ring with an animation, starting at the current value.
+     * The value is set without an animation if the ring is not shown by a {@link CircleProgressView}.
+     *
+     * @param _valueTo           The value after the animation.
+     * @param _animationDuration The duration of the animation in milliseconds.
+     */
+    public void setValueAnimated(float _valueTo, @IntRange(from = 0) long _animationDuration) {
+        if (mOwner == null || !mOwner.requestValueAnimation()) {
+            setValue(_valueTo);
+            return;
+        }
+        mValueFrom = mCurrentValue;
+        mValueTo = _valueTo;
+        mAnimationDuration = _animationDuration;
+        mAnimationStartTime = -1;
+        mAnimating = true;
+    }
+
+    public float getMaxValue() {
+        return mMaxValue;
+    }
+
+    /**
+     * @param _maxValue The max value of the ring. Default: 100
+     */
+    public void setMaxValue(@FloatRange(from = 0) float _maxValue) {
+        mMaxValue = _maxValue;
+        if (mOwner != null) {
+            mOwner.invalidateSelf();
+        }
+    }
+
+    public int getBarWidth() {
+        return mBarWidth;
+    }
+
+    /**
+     * @param _barWidth The width of the ring in pixel. Default: 20
+     */
+    public void setBarWidth(@IntRange(from = 0) int _barWidth) {
+        mBarWidth = _barWidth;
+        mBarPaint.setStrokeWidth(_barWidth);
+        mRimPaint.setStrokeWidth(_barWidth);
+        if (mOwner != null) {
+            mOwner.onRingLayoutChanged();
+        }
+    }
+
+    public int[] getBarColors() {
+        return mBarColors;
+    }
+
+    /**
+     * @param _barColors One or more colors. If more than one color is specified, a gradient of the colors is used.
+     */
+    public void setBarColor(@ColorInt int... _barColors) {
+        if (_barColors == null || _barColors.length == 0) {
+            throw new IllegalArgumentException("barColors must contain at least one color!");
+        }
+        mBarColors = _barColors;
+        if (mOwner != null) {
+            mOwner.onRingStyleChanged(this);
+        } else {
+            mBarPaint.setColor(_barColors[0]);
+        }
+    }
+
+    public int getRimColor() {
+        return mRimColor;
+    }
+
+    /**
+     * @param _rimColor The color of the background of the ring. Default: transparent
+     */
+    public void setRimColor(@ColorInt int _rimColor) {
+        mRimColor = _rimColor;
+        mRimPaint.setColor(_rimColor);
+        if (mOwner != null) {
+            mOwner.onRingStyleChanged(this);
+        }
+    }
+
+    public Paint.Cap getBarStrokeCap() {
+        return mBarStrokeCap;
+    }
+
+    /**
+     * @param _barStrokeCap The stroke cap of the ring.
+     */
+    public void setBarStrokeCap(Paint.Cap _barStrokeCap) {
+        mBarStrokeCap = _barStrokeCap;
+        mBarPaint.setStrokeCap(_barStrokeCap);
+        if (mOwner != null) {
+            mOwner.invalidateSelf();
+        }
+    }
+
+    /**
+     * @return true if a value animation of the ring is running.
+     */
+    public boolean isAnimating() {
+        return mAnimating;
+    }
+
+    //endregion getter/setter
+    //----------------------------------
+
+    /**
+     * Calculates the value of the running animation for the given frame.
+     *
+     * @param _frameTime    The frame time in ms.
+     * @param _interpolator The interpolator of the value animation.
+     * @return true if the animation is still running.
+     */
+    boolean calcNextAnimationValue(long _frameTime, TimeInterpolator _interpolator) {
+        if (!mAnimating) {
+            return false;
+        }
+        if (mAnimationStartTime < 0) {
+            mAnimationStartTime = _frameTime;
+        }
+        float t = mAnimationDuration > 0 ? (float) (_frameTime - mAnimationStartTime) / mAnimationDuration : 1f;
+        if (t >= 1f) {
+            mCurrentValue = mValueTo;
+            mAnimating = false;
+            return false;
+        }
+        mCurrentValue = mValueFrom + (mValueTo - mValueFrom) * _interpolator.getInterpolation(Math.max(0f, t));
+        return true;
+    }
+
+    /**
+     * Moves the start time of a running animation, e.g. by the time the animation was suspended.
+     */
+    void offsetAnimationStartTime(long _offset) {
+        if (mAnimating && mAnimationStartTime >= 0) {
+            mAnimationStartTime += _offset;
+        }
+    }
+}
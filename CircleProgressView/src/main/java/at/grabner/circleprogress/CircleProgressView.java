@@ -6,20 +6,16 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Matrix;
 import android.graphics.Paint;
-import android.graphics.Paint.Style;
 import android.graphics.PointF;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffXfermode;
-import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Shader;
-import android.graphics.SweepGradient;
 import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
-import android.os.Message;
+import androidx.annotation.AnyThread;
 import androidx.annotation.ColorInt;
 import androidx.annotation.FloatRange;
 import androidx.annotation.IntRange;
@@ -27,9 +23,13 @@ import androidx.annotation.NonNull;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 
 import java.text.DecimalFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An circle view, similar to Android's ProgressBar.
@@ -56,14 +56,14 @@ public class CircleProgressView extends View {
      * The log tag.
      */
     private final static String TAG = "CircleView";
-    private static final boolean DEBUG = false;
+    private static final long DEFAULT_VALUE_ANIMATION_DURATION = 1200;
     //----------------------------------
     //region members
-    //Colors (with defaults)
-    private final int mBarColorStandard = 0xff009688; //stylish blue
+    // draws the circle, the view adds the animation, touch input and clipping
+    private final CircleProgressDrawable mDrawable = new CircleProgressDrawable();
     protected int mLayoutHeight = 0;
     protected int mLayoutWidth = 0;
-    //Rectangles
+    //Rectangles, copies of the bounds of the drawable, see copyDrawableBounds()
     protected RectF mCircleBounds = new RectF();
     protected RectF mInnerCircleBound = new RectF();
     protected PointF mCenter;
@@ -79,11 +79,9 @@ public class CircleProgressView extends View {
     protected RectF mCircleOuterContour = new RectF();
     protected RectF mCircleInnerContour = new RectF();
     //value animation
-    Direction mDirection = Direction.CW;
     float mCurrentValue = 0;
     float mValueTo = 0;
     float mValueFrom = 0;
-    float mMaxValue = 100;
     float mMinValueAllowed = 0;
     float mMaxValueAllowed = -1;
     // spinner animation
@@ -93,14 +91,19 @@ public class CircleProgressView extends View {
     //Animation
     //The amount of degree to move the bar by on each draw
     float mSpinSpeed = 2.8f;
+    //The amount of degree to move the bar per second in time based spinning mode
+    float mSpinSpeedPerSecond = 280f;
+    boolean mTimeBasedSpinning = false;
     //Enable spin
     boolean mSpin = false;
     /**
-     * The animation duration in ms
+     * The duration in ms of the last value animation, also used for published values
      */
     double mAnimationDuration = 900;
     //The number of milliseconds to wait in between each draw
     int mFrameDelayMillis = 10;
+    //The time constant of the exponential decay of a fling in ms
+    long mFlingTimeConstant = 325;
     // helper for AnimationState.END_SPINNING_START_ANIMATING
     boolean mDrawBarWhileSpinning;
     //The animation handler containing the animation state machine.
@@ -108,87 +111,33 @@ public class CircleProgressView extends View {
     //The current state of the animation state machine.
     AnimationState mAnimationState = AnimationState.IDLE;
     AnimationStateChangedListener mAnimationStateChangedListener;
-    private int mBarWidth = 40;
-    private int mRimWidth = 40;
-    private int mStartAngle = 270;
-    private float mOuterContourSize = 1;
-    private float mInnerContourSize = 1;
-
-    // Bar start/end width and type
-    private int mBarStartEndLineWidth = 0;
-    private BarStartEndLine mBarStartEndLine = BarStartEndLine.NONE;
-    private int mBarStartEndLineColor = 0xAA000000;
-    private float mBarStartEndLineSweep = 10f;
-    //Default text sizes
-    private int mUnitTextSize = 10;
-    private int mTextSize = 10;
-    //Text scale
-    private float mTextScale = 1;
-    private float mUnitScale = 1;
-    private int mOuterContourColor = 0xAA000000;
-    private int mInnerContourColor = 0xAA000000;
-    private int mSpinnerColor = mBarColorStandard; //stylish blue
-    private int mBackgroundCircleColor = 0x00000000;  //transparent
-    private int mRimColor = 0xAA83d0c9;
-    private int mTextColor = 0xFF000000;
-    private int mUnitColor = 0xFF000000;
-    private boolean mIsAutoColorEnabled = false;
-    private int[] mBarColors = new int[]{
-            mBarColorStandard //stylish blue
-    };
-    //Caps
-    private Paint.Cap mBarStrokeCap = Paint.Cap.BUTT;
-    private Paint.Cap mSpinnerStrokeCap = Paint.Cap.BUTT;
-    //Paints
-    private Paint mBarPaint = new Paint();
-    private Paint mShaderlessBarPaint;
-    private Paint mBarSpinnerPaint = new Paint();
-    private Paint mBarStartEndLinePaint = new Paint();
-    private Paint mBackgroundCirclePaint = new Paint();
-    private Paint mRimPaint = new Paint();
-    private Paint mTextPaint = new Paint();
-    private Paint mUnitTextPaint = new Paint();
-    private Paint mOuterContourPaint = new Paint();
-    private Paint mInnerContourPaint = new Paint();
-    //Other
-    // The text to show
-    private String mText = "";
-    private int mTextLength;
-    private String mUnit = "";
-    private UnitPosition mUnitPosition = UnitPosition.RIGHT_TOP;
-    /**
-     * Indicates if the given text, the current percentage, or the current value should be shown.
-     */
-    private TextMode mTextMode = TextMode.PERCENT;
-    private boolean mIsAutoTextSize;
-    private boolean mShowUnit = false;
+    // the animation is suspended if the view is detached or invisible
+    private boolean mIsAttached = false;
+    private boolean mIsWindowVisible = true;
     //clipping
     private Bitmap mClippingBitmap;
+    // alpha mask of the clipping bitmap in the size of the view
+    private Bitmap mClippingMask;
     private Paint mMaskPaint;
-    /**
-     * Relative size of the unite string to the value string.
-     */
-    private float mRelativeUniteSize = 1f;
     private boolean mSeekModeEnabled = false;
-    private boolean mShowTextWhileSpinning = false;
-    private boolean mShowBlock = false;
-    private int mBlockCount = 18;
-    private float mBlockScale = 0.9f;
-    private float mBlockDegree = 360 / mBlockCount;
-    private float mBlockScaleDegree = mBlockDegree * mBlockScale;
     private boolean mRoundToBlock = false;
     private boolean mRoundToWholeNumber = false;
 
     private int mTouchEventCount;
+    // reused for all touch events
+    private final PointF mTouchPoint = new PointF();
+    // latest value of a seek move, applied once on the next frame
+    private float mSeekValue;
+    private boolean mSeekFlingEnabled = false;
+    // reused for all gestures, released when the view is detached
+    private VelocityTracker mVelocityTracker;
+    private final int mMinFlingVelocity;
+    private final int mMaxFlingVelocity;
     private OnProgressChangedListener onProgressChangedListener;
     private float previousProgressChangedValue;
-
-
-    private DecimalFormat decimalFormat = new DecimalFormat("0");
-
-    // Text typeface
-    private Typeface textTypeface;
-    private Typeface unitTextTypeface;
+    // latest value published by publishValue(float), stored as raw float bits
+    private final AtomicInteger mPublishedValue = new AtomicInteger();
+    private final AtomicBoolean mPublishedValuePending = new AtomicBoolean(false);
     //endregion members
     //----------------------------------
 
@@ -200,6 +149,16 @@ public class CircleProgressView extends View {
      */
     public CircleProgressView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        ViewConfiguration viewConfiguration = ViewConfiguration.get(context);
+        mMinFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
+        mMaxFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+        mDrawable.setCallback(this);
+        mDrawable.setValueAnimationListener(new CircleProgressDrawable.ValueAnimationListener() {
+            @Override
+            public void onValueAnimationRequested() {
+                mAnimationHandler.requestTick();
+            }
+        });
 
         parseAttributes(context.obtainStyledAttributes(attrs,
                 R.styleable.CircleProgressView));
@@ -214,38 +173,14 @@ public class CircleProgressView extends View {
         mMaskPaint.setFilterBitmap(false);
         mMaskPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
         setupPaints();
+        // no ticks till the view is attached and visible
+        updateAnimationSuspended();
 
         if (mSpin) {
             spin();
         }
     }
 
-    private static float calcTextSizeForRect(String _text, Paint _textPaint, RectF _rectBounds) {
-
-        Matrix matrix = new Matrix();
-        Rect textBoundsTmp = new Rect();
-        //replace ones because for some fonts the 1 takes less space which causes issues
-        String text = _text.replace('1', '0');
-
-        //get current mText bounds
-        _textPaint.getTextBounds(text, 0, text.length(), textBoundsTmp);
-
-        RectF textBoundsTmpF = new RectF(textBoundsTmp);
-
-        matrix.setRectToRect(textBoundsTmpF, _rectBounds, Matrix.ScaleToFit.CENTER);
-        float values[] = new float[9];
-        matrix.getValues(values);
-        return _textPaint.getTextSize() * values[Matrix.MSCALE_X];
-    }
-
-    /**
-     * @param _angle The angle in degree to normalize
-     * @return the angle between 0 (EAST) and 360
-     */
-    private static float normalizeAngle(float _angle) {
-        return (((_angle % 360) + 360) % 360);
-    }
-
     /**
      * Calculates the angle from centerPt to targetPt in degrees.
      * The return should range from [0,360), rotating CLOCKWISE,
@@ -289,10 +224,49 @@ public class CircleProgressView extends View {
         return angle;
     }
 
+    /**
+     * Calculates the angle from (0, 0) to (_x, _y) like {@link #calcRotationAngleInDegrees(PointF, PointF)},
+     * with a polynomial approximation of atan2 in float precision. The error is below 0.02 degree.
+     *
+     * @param _x The x distance to the center.
+     * @param _y The y distance to the center.
+     * @return angle in degrees, from 0 to 360, rotating CLOCKWISE.
+     */
+    static float calcRotationAngleInDegreesFast(float _x, float _y) {
+        float absX = Math.abs(_x);
+        float absY = Math.abs(_y);
+        if (absX == 0 && absY == 0) {
+            return 0;
+        }
+        // atan of the ratio in [0, 1], the other octants are mirrored
+        float a = Math.min(absX, absY) / Math.max(absX, absY);
+        float s = a * a;
+        float theta = ((-0.0464964749f * s + 0.15931422f) * s - 0.327622764f) * s * a + a;
+        if (absY > absX) {
+            theta = (float) (Math.PI / 2) - theta;
+        }
+        if (_x < 0) {
+            theta = (float) Math.PI - theta;
+        }
+        if (_y < 0) {
+            theta = (float) (2 * Math.PI) - theta;
+        }
+        return theta * (float) (180 / Math.PI);
+    }
+
     //----------------------------------
     //region getter/setter
+
+    /**
+     * @return The drawable which draws the circle of this view.
+     * Changes of its style are visible in the view, changes of its value are overwritten by the view.
+     */
+    public CircleProgressDrawable getDrawable() {
+        return mDrawable;
+    }
+
     public BarStartEndLine getBarStartEndLine() {
-        return mBarStartEndLine;
+        return mDrawable.getBarStartEndLine();
     }
 
     /**
@@ -304,59 +278,67 @@ public class CircleProgressView extends View {
      * @param _sweepWidth      The sweep amount in degrees for the start and end bars to cover.
      */
     public void setBarStartEndLine(int _barWidth, BarStartEndLine _barStartEndLine, @ColorInt int _lineColor, float _sweepWidth) {
-        mBarStartEndLineWidth = _barWidth;
-        mBarStartEndLine = _barStartEndLine;
-        mBarStartEndLineColor = _lineColor;
-        mBarStartEndLineSweep = _sweepWidth;
+        mDrawable.setBarStartEndLine(_barWidth, _barStartEndLine, _lineColor, _sweepWidth);
     }
 
     public int[] getBarColors() {
-        return mBarColors;
+        return mDrawable.getBarColors();
+    }
+
+    public ColorInterpolation getBarColorInterpolation() {
+        return mDrawable.getBarColorInterpolation();
+    }
+
+    /**
+     * Sets the color space used for the gradient of the bar colors and the auto text color.
+     * The gradient is computed once, the interpolation mode has no cost while drawing.
+     *
+     * @param _barColorInterpolation The interpolation mode. Default: {@link ColorInterpolation#RGB}
+     */
+    public void setBarColorInterpolation(@NonNull ColorInterpolation _barColorInterpolation) {
+        mDrawable.setBarColorInterpolation(_barColorInterpolation);
+    }
+
+    public ColorUtils.HSVColorDirection getBarColorHSVDirection() {
+        return mDrawable.getBarColorHSVDirection();
+    }
+
+    /**
+     * @param _barColorHSVDirection The direction of the hue if the bar colors use {@link ColorInterpolation#HSV}.
+     *                              Default: {@link ColorUtils.HSVColorDirection#Shortest}
+     */
+    public void setBarColorHSVDirection(@NonNull ColorUtils.HSVColorDirection _barColorHSVDirection) {
+        mDrawable.setBarColorHSVDirection(_barColorHSVDirection);
     }
 
     public Paint.Cap getBarStrokeCap() {
-        return mBarStrokeCap;
+        return mDrawable.getBarStrokeCap();
     }
 
     /**
      * @param _barStrokeCap The stroke cap of the progress bar.
      */
     public void setBarStrokeCap(Paint.Cap _barStrokeCap) {
-        mBarStrokeCap = _barStrokeCap;
-        mBarPaint.setStrokeCap(_barStrokeCap);
-        if (mBarStrokeCap != Paint.Cap.BUTT) {
-            mShaderlessBarPaint = new Paint(mBarPaint);
-            mShaderlessBarPaint.setShader(null);
-            mShaderlessBarPaint.setColor(mBarColors[0]);
-        }
+        mDrawable.setBarStrokeCap(_barStrokeCap);
     }
 
     public int getBarWidth() {
-        return mBarWidth;
+        return mDrawable.getBarWidth();
     }
 
     /**
      * @param barWidth The width of the progress bar in pixel.
      */
     public void setBarWidth(@IntRange(from = 0) int barWidth) {
-        this.mBarWidth = barWidth;
-        mBarPaint.setStrokeWidth(barWidth);
-        mBarSpinnerPaint.setStrokeWidth(barWidth);
+        mDrawable.setBarWidth(barWidth);
     }
 
     public int getBlockCount() {
-        return mBlockCount;
+        return mDrawable.getBlockCount();
     }
 
     public void setBlockCount(int blockCount) {
-        if (blockCount > 1) {
-            mShowBlock = true;
-            mBlockCount = blockCount;
-            mBlockDegree = 360.0f / blockCount;
-            mBlockScaleDegree = mBlockDegree * mBlockScale;
-        } else {
-            mShowBlock = false;
-        }
+        mDrawable.setBlockCount(blockCount);
     }
 
     public void setRoundToBlock(boolean _roundToBlock) {
@@ -376,62 +358,55 @@ public class CircleProgressView extends View {
     }
 
     public float getBlockScale() {
-        return mBlockScale;
+        return mDrawable.getBlockScale();
     }
 
     public void setBlockScale(@FloatRange(from = 0.0, to = 1) float blockScale) {
-        if (blockScale >= 0.0f && blockScale <= 1.0f) {
-            mBlockScale = blockScale;
-            mBlockScaleDegree = mBlockDegree * blockScale;
-        }
+        mDrawable.setBlockScale(blockScale);
     }
 
     public int getOuterContourColor() {
-        return mOuterContourColor;
+        return mDrawable.getOuterContourColor();
     }
 
     /**
      * @param _contourColor The color of the background contour of the circle.
      */
     public void setOuterContourColor(@ColorInt int _contourColor) {
-        mOuterContourColor = _contourColor;
-        mOuterContourPaint.setColor(_contourColor);
+        mDrawable.setOuterContourColor(_contourColor);
     }
 
     public float getOuterContourSize() {
-        return mOuterContourSize;
+        return mDrawable.getOuterContourSize();
     }
 
     /**
      * @param _contourSize The size of the background contour of the circle.
      */
     public void setOuterContourSize(@FloatRange(from = 0.0) float _contourSize) {
-        mOuterContourSize = _contourSize;
-        mOuterContourPaint.setStrokeWidth(_contourSize);
+        mDrawable.setOuterContourSize(_contourSize);
     }
 
     public int getInnerContourColor() {
-        return mInnerContourColor;
+        return mDrawable.getInnerContourColor();
     }
 
     /**
      * @param _contourColor The color of the background contour of the circle.
      */
     public void setInnerContourColor(@ColorInt int _contourColor) {
-        mInnerContourColor = _contourColor;
-        mInnerContourPaint.setColor(_contourColor);
+        mDrawable.setInnerContourColor(_contourColor);
     }
 
     public float getInnerContourSize() {
-        return mInnerContourSize;
+        return mDrawable.getInnerContourSize();
     }
 
     /**
      * @param _contourSize The size of the background contour of the circle.
      */
     public void setInnerContourSize(@FloatRange(from = 0.0) float _contourSize) {
-        mInnerContourSize = _contourSize;
-        mInnerContourPaint.setStrokeWidth(_contourSize);
+        mDrawable.setInnerContourSize(_contourSize);
     }
 
     /**
@@ -442,14 +417,52 @@ public class CircleProgressView extends View {
     }
 
     /**
+     * The number of ms to wait between each draw call.
+     * Only used for ticking if the frame clock is disabled, see {@link #setFrameClockEnabled(boolean)}.
+     *
      * @param delayMillis The number of ms to wait between each draw call.
      */
     public void setDelayMillis(int delayMillis) {
         this.mFrameDelayMillis = delayMillis;
     }
 
+    /**
+     * @return true if animations are ticked by the display frame clock.
+     */
+    public boolean isFrameClockEnabled() {
+        return mAnimationHandler.isFrameClockEnabled();
+    }
+
+    /**
+     * Animations are suspended while the view is not attached to a window or not visible,
+     * and resume with their current phase as soon as the view is shown again.
+     *
+     * @return true if the animation is currently suspended.
+     */
+    public boolean isAnimationSuspended() {
+        return mAnimationHandler.isSuspended();
+    }
+
+    /**
+     * @return true if an animation tick is scheduled. Always false while the animation is suspended.
+     */
+    public boolean isAnimationTickScheduled() {
+        return mAnimationHandler.isTickScheduled();
+    }
+
+    /**
+     * If enabled (default), animations are updated once per displayed frame, synchronized to vsync
+     * and interpolated with the frame timestamp. All animating views share a single frame callback.
+     * If disabled, animations are ticked by delayed messages every {@link #getDelayMillis()} ms.
+     *
+     * @param _frameClockEnabled true to use the frame clock, false to use the message based fallback.
+     */
+    public void setFrameClockEnabled(boolean _frameClockEnabled) {
+        mAnimationHandler.setFrameClockEnabled(_frameClockEnabled);
+    }
+
     public int getFillColor() {
-        return mBackgroundCirclePaint.getColor();
+        return mDrawable.getFillColor();
     }
 
     public float getCurrentValue() {
@@ -465,7 +478,7 @@ public class CircleProgressView extends View {
     }
 
     public float getMaxValue() {
-        return mMaxValue;
+        return mDrawable.getMaxValue();
     }
 
     /**
@@ -475,7 +488,7 @@ public class CircleProgressView extends View {
      * @param _maxValue The max value.
      */
     public void setMaxValue(@FloatRange(from = 0) float _maxValue) {
-        mMaxValue = _maxValue;
+        mDrawable.setMaxValue(_maxValue);
     }
 
     /**
@@ -500,39 +513,37 @@ public class CircleProgressView extends View {
      * @return The relative size (scale factor) of the unit text size to the text size
      */
     public float getRelativeUniteSize() {
-        return mRelativeUniteSize;
+        return mDrawable.getRelativeUniteSize();
     }
 
     public int getRimColor() {
-        return mRimColor;
+        return mDrawable.getRimColor();
     }
 
     /**
      * @param rimColor The color of the rim around the Circle.
      */
     public void setRimColor(@ColorInt int rimColor) {
-        mRimColor = rimColor;
-        mRimPaint.setColor(rimColor);
+        mDrawable.setRimColor(rimColor);
     }
 
     public Shader getRimShader() {
-        return mRimPaint.getShader();
+        return mDrawable.getRimShader();
     }
 
     public void setRimShader(Shader shader) {
-        this.mRimPaint.setShader(shader);
+        mDrawable.setRimShader(shader);
     }
 
     public int getRimWidth() {
-        return mRimWidth;
+        return mDrawable.getRimWidth();
     }
 
     /**
      * @param rimWidth The width in pixel of the rim around the circle
      */
     public void setRimWidth(@IntRange(from = 0) int rimWidth) {
-        mRimWidth = rimWidth;
-        mRimPaint.setStrokeWidth(rimWidth);
+        mDrawable.setRimWidth(rimWidth);
     }
 
     public float getSpinSpeed() {
@@ -548,29 +559,59 @@ public class CircleProgressView extends View {
         mSpinSpeed = spinSpeed;
     }
 
+    public float getSpinSpeedPerSecond() {
+        return mSpinSpeedPerSecond;
+    }
+
+    /**
+     * The amount of degree to move the bar per second. Enables time based spinning,
+     * see {@link #setTimeBasedSpinningEnabled(boolean)}.
+     *
+     * @param _spinSpeedPerSecond the speed of the spinner in degree per second
+     */
+    public void setSpinSpeedPerSecond(@FloatRange(from = 0.0, fromInclusive = false) float _spinSpeedPerSecond) {
+        if (_spinSpeedPerSecond > 0) {
+            mSpinSpeedPerSecond = _spinSpeedPerSecond;
+            mTimeBasedSpinning = true;
+        }
+    }
+
+    public boolean isTimeBasedSpinningEnabled() {
+        return mTimeBasedSpinning;
+    }
+
+    /**
+     * If enabled, the spinner moves {@link #getSpinSpeedPerSecond()} degrees per second,
+     * independent of the frame rate. Late frames are caught up.
+     * If disabled (default), the spinner moves {@link #getSpinSpeed()} degrees on every frame.
+     *
+     * @param _timeBasedSpinning true to enable time based spinning
+     */
+    public void setTimeBasedSpinningEnabled(boolean _timeBasedSpinning) {
+        mTimeBasedSpinning = _timeBasedSpinning;
+    }
+
     public Paint.Cap getSpinnerStrokeCap() {
-        return mSpinnerStrokeCap;
+        return mDrawable.getSpinnerStrokeCap();
     }
 
     /**
      * @param _spinnerStrokeCap The stroke cap of the progress bar in spinning mode.
      */
     public void setSpinnerStrokeCap(Paint.Cap _spinnerStrokeCap) {
-        mSpinnerStrokeCap = _spinnerStrokeCap;
-        mBarSpinnerPaint.setStrokeCap(_spinnerStrokeCap);
+        mDrawable.setSpinnerStrokeCap(_spinnerStrokeCap);
     }
 
     public int getStartAngle() {
-        return mStartAngle;
+        return mDrawable.getStartAngle();
     }
 
     public void setStartAngle(@IntRange(from = 0,to = 360) int _startAngle) {
-        // get a angle between 0 and 360
-        mStartAngle = (int) normalizeAngle(_startAngle);
+        mDrawable.setStartAngle(_startAngle);
     }
 
     public int calcTextColor() {
-        return mTextColor;
+        return mDrawable.calcTextColor();
     }
 
     /**
@@ -580,15 +621,14 @@ public class CircleProgressView extends View {
      * @param textColor the color
      */
     public void setTextColor(@ColorInt int textColor) {
-        mTextColor = textColor;
-        mTextPaint.setColor(textColor);
+        mDrawable.setTextColor(textColor);
     }
 
     /**
      * @return The scale value
      */
     public float getTextScale() {
-        return mTextScale;
+        return mDrawable.getTextScale();
     }
 
     /**
@@ -598,11 +638,11 @@ public class CircleProgressView extends View {
      * @param _textScale The scale value.
      */
     public void setTextScale(@FloatRange(from = 0.0) float _textScale) {
-        mTextScale = _textScale;
+        mDrawable.setTextScale(_textScale);
     }
 
     public int getTextSize() {
-        return mTextSize;
+        return mDrawable.getTextSize();
     }
 
     /**
@@ -612,13 +652,11 @@ public class CircleProgressView extends View {
      * @param textSize The text size of the unit.
      */
     public void setTextSize(@IntRange(from = 0) int textSize) {
-        this.mTextPaint.setTextSize(textSize);
-        mTextSize = textSize;
-        mIsAutoTextSize = false;
+        mDrawable.setTextSize(textSize);
     }
 
     public String getUnit() {
-        return mUnit;
+        return mDrawable.getUnit();
     }
 
     /**
@@ -626,19 +664,14 @@ public class CircleProgressView extends View {
      *              You also need to set {@link #setUnitVisible(boolean)} to true.
      */
     public void setUnit(String _unit) {
-        if (_unit == null) {
-            mUnit = "";
-        } else {
-            mUnit = _unit;
-        }
-        invalidate();
+        mDrawable.setUnit(_unit);
     }
 
     /**
      * @return The scale value
      */
     public float getUnitScale() {
-        return mUnitScale;
+        return mDrawable.getUnitScale();
     }
 
     /**
@@ -648,11 +681,11 @@ public class CircleProgressView extends View {
      * @param _unitScale The scale value.
      */
     public void setUnitScale(@FloatRange(from = 0.0) float _unitScale) {
-        mUnitScale = _unitScale;
+        mDrawable.setUnitScale(_unitScale);
     }
 
     public int getUnitSize() {
-        return mUnitTextSize;
+        return mDrawable.getUnitSize();
     }
 
     /**
@@ -663,22 +696,21 @@ public class CircleProgressView extends View {
      * @param unitSize The text size of the unit.
      */
     public void setUnitSize(@IntRange(from = 0) int unitSize) {
-        mUnitTextSize = unitSize;
-        mUnitTextPaint.setTextSize(unitSize);
+        mDrawable.setUnitSize(unitSize);
     }
 
     /**
      * @return true if auto text size is enabled, false otherwise.
      */
     public boolean isAutoTextSize() {
-        return mIsAutoTextSize;
+        return mDrawable.isAutoTextSize();
     }
 
     /**
      * @param _autoTextSize true to enable auto text size calculation.
      */
     public void setAutoTextSize(boolean _autoTextSize) {
-        mIsAutoTextSize = _autoTextSize;
+        mDrawable.setAutoTextSize(_autoTextSize);
     }
 
     public boolean isSeekModeEnabled() {
@@ -689,37 +721,63 @@ public class CircleProgressView extends View {
         mSeekModeEnabled = _seekModeEnabled;
     }
 
+    public boolean isSeekFlingEnabled() {
+        return mSeekFlingEnabled;
+    }
+
+    /**
+     * If enabled, the value keeps moving after the ring was flicked in seek mode and slows down exponentially.
+     * The value where it stops is rounded and limited like a value set by {@link #setValue(float)}.
+     *
+     * @param _seekFlingEnabled true to enable flinging. Default: false
+     */
+    public void setSeekFlingEnabled(boolean _seekFlingEnabled) {
+        mSeekFlingEnabled = _seekFlingEnabled;
+    }
+
+    public long getSeekFlingTimeConstant() {
+        return mFlingTimeConstant;
+    }
+
+    /**
+     * @param _flingTimeConstant The time constant of the exponential decay of a fling in milliseconds.
+     *                           After this time, about 63% of the distance is covered. Default: 325
+     */
+    public void setSeekFlingTimeConstant(@IntRange(from = 1) long _flingTimeConstant) {
+        if (_flingTimeConstant <= 0) {
+            throw new IllegalArgumentException("flingTimeConstant must be > 0!");
+        }
+        mFlingTimeConstant = _flingTimeConstant;
+    }
+
     public boolean isShowBlock() {
-        return mShowBlock;
+        return mDrawable.isShowBlock();
     }
 
     public void setShowBlock(boolean showBlock) {
-        mShowBlock = showBlock;
+        mDrawable.setShowBlock(showBlock);
     }
 
     public boolean isShowTextWhileSpinning() {
-        return mShowTextWhileSpinning;
+        return mDrawable.isShowTextWhileSpinning();
     }
 
     /**
      * @param shouldDrawTextWhileSpinning True to show text in spinning mode, false to hide it.
      */
     public void setShowTextWhileSpinning(boolean shouldDrawTextWhileSpinning) {
-        mShowTextWhileSpinning = shouldDrawTextWhileSpinning;
+        mDrawable.setShowTextWhileSpinning(shouldDrawTextWhileSpinning);
     }
 
     public boolean isUnitVisible() {
-        return mShowUnit;
+        return mDrawable.isUnitVisible();
     }
 
     /**
      * @param _showUnit True to show unit, false to hide it.
      */
     public void setUnitVisible(boolean _showUnit) {
-        if (_showUnit != mShowUnit) {
-            mShowUnit = _showUnit;
-            triggerReCalcTextSizesAndPositions(); // triggers recalculating text sizes
-        }
+        mDrawable.setUnitVisible(_showUnit);
     }
 
     /**
@@ -728,29 +786,25 @@ public class CircleProgressView extends View {
      * @param barColors One or more colors. If more than one color is specified, a gradient of the colors is used.
      */
     public void setBarColor(@ColorInt int... barColors) {
-        this.mBarColors = barColors;
-        setupBarPaint();
+        mDrawable.setBarColor(barColors);
     }
 
     /**
+     * The alpha channel of the bitmap is used as mask, it is scaled to the size of the view.
+     * Clipping keeps hardware acceleration, the mask is composited on the hardware layer of the view.
+     *
      * @param _clippingBitmap The bitmap used for clipping. Set to null to disable clipping.
      *                        Default: No clipping.
      */
     @TargetApi(Build.VERSION_CODES.HONEYCOMB)
     public void setClippingBitmap(Bitmap _clippingBitmap) {
-
-        if (getWidth() > 0 && getHeight() > 0) {
-            mClippingBitmap = Bitmap.createScaledBitmap(_clippingBitmap, getWidth(), getHeight(), false);
-        } else {
-            mClippingBitmap = _clippingBitmap;
-        }
-        if (mClippingBitmap == null) {
-            // enable HW acceleration
+        mClippingBitmap = _clippingBitmap;
+        setupClippingMask();
+        if (mClippingBitmap != null && !isInEditMode() && getLayerType() != View.LAYER_TYPE_HARDWARE) {
+            // the mask needs an own layer, otherwise it would also clip the content behind the view
             setLayerType(View.LAYER_TYPE_HARDWARE, null);
-        } else {
-            // disable HW acceleration
-            setLayerType(View.LAYER_TYPE_SOFTWARE, null);
         }
+        invalidate();
     }
 
     /**
@@ -760,8 +814,7 @@ public class CircleProgressView extends View {
      * @param circleColor the color.
      */
     public void setFillCircleColor(@ColorInt int circleColor) {
-        mBackgroundCircleColor = circleColor;
-        mBackgroundCirclePaint.setColor(circleColor);
+        mDrawable.setFillCircleColor(circleColor);
     }
 
     public void setOnAnimationStateChangedListener(AnimationStateChangedListener _animationStateChangedListener) {
@@ -776,8 +829,7 @@ public class CircleProgressView extends View {
      * @param _color The color of progress the bar in spinning mode.
      */
     public void setSpinBarColor(@ColorInt int _color) {
-        mSpinnerColor = _color;
-        mBarSpinnerPaint.setColor(mSpinnerColor);
+        mDrawable.setSpinBarColor(_color);
     }
 
     /**
@@ -796,8 +848,7 @@ public class CircleProgressView extends View {
      * @param text The text to show
      */
     public void setText(String text) {
-        mText = text != null ? text : "";
-        invalidate();
+        mDrawable.setText(text);
     }
 
     /**
@@ -808,7 +859,7 @@ public class CircleProgressView extends View {
      * @param isEnabled true to enable, false to disable
      */
     public void setTextColorAuto(boolean isEnabled) {
-        mIsAutoColorEnabled = isEnabled;
+        mDrawable.setTextColorAuto(isEnabled);
     }
 
     /**
@@ -817,14 +868,14 @@ public class CircleProgressView extends View {
      * @param _textValue The mode
      */
     public void setTextMode(TextMode _textValue) {
-        mTextMode = _textValue;
+        mDrawable.setTextMode(_textValue);
     }
 
     /**
      * @param typeface The typeface to use for the text
      */
     public void setTextTypeface(Typeface typeface) {
-        mTextPaint.setTypeface(typeface);
+        mDrawable.setTextTypeface(typeface);
     }
 
     /**
@@ -834,21 +885,18 @@ public class CircleProgressView extends View {
      * @param unitColor The color.
      */
     public void setUnitColor(@ColorInt int unitColor) {
-        mUnitColor = unitColor;
-        mUnitTextPaint.setColor(unitColor);
-        mIsAutoColorEnabled = false;
+        mDrawable.setUnitColor(unitColor);
     }
 
     public void setUnitPosition(UnitPosition _unitPosition) {
-        mUnitPosition = _unitPosition;
-        triggerReCalcTextSizesAndPositions(); // triggers recalculating text sizes
+        mDrawable.setUnitPosition(_unitPosition);
     }
 
     /**
      * @param typeface The typeface to use for the unit text
      */
     public void setUnitTextTypeface(Typeface typeface) {
-        mUnitTextPaint.setTypeface(typeface);
+        mDrawable.setUnitTextTypeface(typeface);
     }
 
     /**
@@ -856,15 +904,18 @@ public class CircleProgressView extends View {
      *                           Only useful for autotextsize=true; Effects both, the unit text size and the text size.
      */
     public void setUnitToTextScale(@FloatRange(from = 0.0) float _relativeUniteSize) {
-        mRelativeUniteSize = _relativeUniteSize;
-        triggerReCalcTextSizesAndPositions();
+        mDrawable.setUnitToTextScale(_relativeUniteSize);
     }
 
     /**
      * Sets the direction of circular motion (clockwise or counter-clockwise).
      */
     public void setDirection(Direction direction) {
-        mDirection = direction;
+        mDrawable.setDirection(direction);
+    }
+
+    public Direction getDirection() {
+        return mDrawable.getDirection();
     }
 
     /**
@@ -874,25 +925,9 @@ public class CircleProgressView extends View {
      * @param _value The value.
      */
     public void setValue(float _value) {
-        // round to block
-        if (mShowBlock && mRoundToBlock) {
-            float value_per_block = mMaxValue / (float) mBlockCount;
-            _value = Math.round(_value / value_per_block) * value_per_block;
+        _value = roundAndLimitValue(_value);
 
-        } else if (mRoundToWholeNumber) { // round to whole number
-            _value = Math.round(_value);
-        }
-
-        // respect min and max values allowed
-        _value = Math.max(mMinValueAllowed, _value);
-
-        if (mMaxValueAllowed >= 0)
-            _value = Math.min(mMaxValueAllowed, _value);
-
-        Message msg = new Message();
-        msg.what = AnimationMsg.SET_VALUE.ordinal();
-        msg.obj = new float[]{_value, _value};
-        mAnimationHandler.sendMessage(msg);
+        mAnimationHandler.sendValueMessage(AnimationMsg.SET_VALUE, _value, _value);
         triggerOnProgressChanged(_value);
     }
 
@@ -903,7 +938,7 @@ public class CircleProgressView extends View {
      * @param _valueTo value after animation
      */
     public void setValueAnimated(float _valueTo) {
-        setValueAnimated(_valueTo, 1200);
+        setValueAnimated(_valueTo, DEFAULT_VALUE_ANIMATION_DURATION);
     }
 
     /**
@@ -925,39 +960,72 @@ public class CircleProgressView extends View {
      * @param _animationDuration the duration of the animation in milliseconds
      */
     public void setValueAnimated(float _valueFrom, float _valueTo, long _animationDuration) {
-        // round to block
-        if (mShowBlock && mRoundToBlock) {
-            float value_per_block = mMaxValue / (float) mBlockCount;
-            _valueTo = Math.round(_valueTo / value_per_block) * value_per_block;
+        _valueTo = roundAndLimitValue(_valueTo);
 
-        } else if (mRoundToWholeNumber) {
-            _valueTo = Math.round(_valueTo);
-        }
+        mAnimationHandler.sendValueAnimatedMessage(_valueFrom, _valueTo, _animationDuration);
+        triggerOnProgressChanged(_valueTo);
+    }
 
-        // respect min and max values allowed
-        _valueTo = Math.max(mMinValueAllowed, _valueTo);
+    /**
+     * Publishes a new value, which is applied animated like {@link #setValueAnimated(float, long)}
+     * with the duration of the last value animation.
+     * <p/>
+     * Can be called from any thread. Only the latest published value is kept and applied at most
+     * once per frame on the main thread, so frequent updates of a background producer
+     * do not cause more than one redraw per frame.
+     * The {@link OnProgressChangedListener} is called on the main thread.
+     *
+     * @param _value The new value.
+     */
+    @AnyThread
+    public void publishValue(float _value) {
+        mPublishedValue.set(Float.floatToRawIntBits(_value));
+        if (!mPublishedValuePending.getAndSet(true)) {
+            mAnimationHandler.sendEmptyMessage(AnimationMsg.PUBLISH_VALUE.ordinal());
+        }
+    }
 
-        if (mMaxValueAllowed >= 0)
-            _valueTo = Math.min(mMaxValueAllowed, _valueTo);
+    /**
+     * Takes the latest published value. Called by the animation handler on the main thread.
+     *
+     * @return The published value, rounded and limited like a value set by {@link #setValueAnimated(float)}.
+     */
+    float consumePublishedValue() {
+        // reset the flag before reading, so a value published meanwhile triggers a new update
+        mPublishedValuePending.set(false);
+        float value = roundAndLimitValue(Float.intBitsToFloat(mPublishedValue.get()));
+        triggerOnProgressChanged(value);
+        return value;
+    }
 
-        mAnimationDuration = _animationDuration;
-        Message msg = new Message();
-        msg.what = AnimationMsg.SET_VALUE_ANIMATED.ordinal();
-        msg.obj = new float[]{_valueFrom, _valueTo};
-        mAnimationHandler.sendMessage(msg);
-        triggerOnProgressChanged(_valueTo);
+    /**
+     * Takes the latest value of a seek move. Called by the animation handler once per frame.
+     *
+     * @return The seek value, rounded and limited like a value set by {@link #setValue(float)}.
+     */
+    float consumeSeekValue() {
+        float value = roundAndLimitValue(mSeekValue);
+        triggerOnProgressChanged(value);
+        return value;
     }
 
 
+    /**
+     * @return The format of the value text. Call {@link #setDecimalFormat(DecimalFormat)}
+     * again after modifying it, otherwise the changes are not applied.
+     */
     public DecimalFormat getDecimalFormat() {
-        return decimalFormat;
+        return mDrawable.getDecimalFormat();
     }
 
+    /**
+     * Sets the format of the value text. Common patterns (integer and fraction digits, grouping,
+     * prefixes and suffixes) are formatted without allocations, all others use the DecimalFormat directly.
+     *
+     * @param decimalFormat The format of the value text.
+     */
     public void setDecimalFormat(DecimalFormat decimalFormat) {
-        if (decimalFormat == null) {
-            throw new IllegalArgumentException("decimalFormat must not be null!");
-        }
-        this.decimalFormat = decimalFormat;
+        mDrawable.setDecimalFormat(decimalFormat);
     }
 
     /**
@@ -978,6 +1046,196 @@ public class CircleProgressView extends View {
         mAnimationHandler.setLengthChangeInterpolator(interpolator);
     }
 
+    public boolean isInterpolatorLookupTablesEnabled() {
+        return mAnimationHandler.isInterpolatorLookupTablesEnabled();
+    }
+
+    /**
+     * Samples the value and length change interpolators once into lookup tables, which are interpolated linearly.
+     * Reduces the cost of costly interpolators on every frame to a few array reads. Views with the same
+     * interpolator instance, e.g. the default interpolators, share the table.
+     * Only use it with stateless interpolators.
+     *
+     * @param _enabled true to use lookup tables. Default: false
+     */
+    public void setInterpolatorLookupTablesEnabled(boolean _enabled) {
+        mAnimationHandler.setInterpolatorLookupTablesEnabled(_enabled);
+    }
+
+    public boolean isSpringAnimationEnabled() {
+        return mAnimationHandler.isSpringEnabled();
+    }
+
+    /**
+     * Enables spring animations for value changes. Instead of the value interpolator and the
+     * animation duration, the value follows a damped spring towards the target value.
+     * If the target changes during an animation, e.g. by frequent calls of {@link #setValueAnimated(float)}
+     * or {@link #publishValue(float)}, the current velocity is kept, so the bar moves smoothly
+     * and settles instead of accelerating from zero again.
+     *
+     * @param _springAnimationEnabled true to use spring animations. Default: false
+     */
+    public void setSpringAnimationEnabled(boolean _springAnimationEnabled) {
+        mAnimationHandler.setSpringEnabled(_springAnimationEnabled);
+    }
+
+    public float getSpringStiffness() {
+        return mAnimationHandler.getSpringStiffness();
+    }
+
+    /**
+     * @param _stiffness The stiffness of the spring, higher values move faster. Default: 200
+     */
+    public void setSpringStiffness(@FloatRange(from = 0, fromInclusive = false) float _stiffness) {
+        mAnimationHandler.setSpringStiffness(_stiffness);
+    }
+
+    public float getSpringDampingRatio() {
+        return mAnimationHandler.getSpringDampingRatio();
+    }
+
+    /**
+     * @param _dampingRatio The damping ratio of the spring. 1 is critically damped and settles fastest
+     *                      without overshooting, smaller values overshoot and bounce. Default: 1
+     */
+    public void setSpringDampingRatio(@FloatRange(from = 0, fromInclusive = false) float _dampingRatio) {
+        mAnimationHandler.setSpringDampingRatio(_dampingRatio);
+    }
+
+    public ValueQueuePolicy getValueQueuePolicy() {
+        return mAnimationHandler.getValueQueuePolicy();
+    }
+
+    /**
+     * Sets how values set by {@link #setValueAnimated(float)} or {@link #publishValue(float)} are applied
+     * while an animation is running. Queued values are discarded by {@link #setValue(float)} and {@link #spin()}.
+     *
+     * @param _valueQueuePolicy The policy. Default: {@link ValueQueuePolicy#LATEST_WINS}
+     */
+    public void setValueQueuePolicy(@NonNull ValueQueuePolicy _valueQueuePolicy) {
+        mAnimationHandler.setValueQueuePolicy(_valueQueuePolicy);
+    }
+
+    public int getValueQueueCapacity() {
+        return mAnimationHandler.getValueQueueCapacity();
+    }
+
+    /**
+     * @param _capacity The max number of queued values of {@link ValueQueuePolicy#SEQUENTIAL}.
+     *                  If the queue is full, the oldest queued value is dropped. Default: 16
+     */
+    public void setValueQueueCapacity(@IntRange(from = 1) int _capacity) {
+        mAnimationHandler.setValueQueueCapacity(_capacity);
+    }
+
+    public long getCoalesceWindow() {
+        return mAnimationHandler.getCoalesceWindow();
+    }
+
+    /**
+     * @param _coalesceWindow The time in milliseconds within which values are merged by
+     *                        {@link ValueQueuePolicy#COALESCE}. Default: 100
+     */
+    public void setCoalesceWindow(@IntRange(from = 0) long _coalesceWindow) {
+        mAnimationHandler.setCoalesceWindow(_coalesceWindow);
+    }
+
+    /**
+     * Adds a ring inside the circle, within the rings added before.
+     * All rings are drawn and animated together with the circle of this view.
+     *
+     * @param _ring The ring. A ring can only be added to one view.
+     */
+    public void addRing(@NonNull CircleProgressRing _ring) {
+        mDrawable.addRing(_ring);
+    }
+
+    public void removeRing(@NonNull CircleProgressRing _ring) {
+        mDrawable.removeRing(_ring);
+    }
+
+    public int getRingCount() {
+        return mDrawable.getRingCount();
+    }
+
+    public CircleProgressRing getRing(int _index) {
+        return mDrawable.getRing(_index);
+    }
+
+    public int getRingSpacing() {
+        return mDrawable.getRingSpacing();
+    }
+
+    /**
+     * @param _ringSpacing The gap between the circle and the first ring and between the rings in pixel. Default: 0
+     */
+    public void setRingSpacing(@IntRange(from = 0) int _ringSpacing) {
+        mDrawable.setRingSpacing(_ringSpacing);
+    }
+
+    /**
+     * Shows the bar as consecutive segments, e.g. to show a breakdown of a value.
+     * The segments are drawn back to back from the start angle in the direction of the circle.
+     * The text still shows the value of the view.
+     *
+     * @param _values The value of each segment, relative to the max value.
+     * @param _colors The color of each segment.
+     */
+    public void setSegments(@NonNull float[] _values, @NonNull @ColorInt int[] _colors) {
+        mDrawable.setSegments(_values, _colors);
+    }
+
+    /**
+     * Removes the segments, the bar is shown again.
+     */
+    public void clearSegments() {
+        mDrawable.clearSegments();
+    }
+
+    public int getSegmentCount() {
+        return mDrawable.getSegmentCount();
+    }
+
+    public float getSegmentValue(int _index) {
+        return mDrawable.getSegmentValue(_index);
+    }
+
+    /**
+     * @param _index The index of the segment.
+     * @param _color The color of the segment.
+     */
+    public void setSegmentColor(int _index, @ColorInt int _color) {
+        mDrawable.setSegmentColor(_index, _color);
+    }
+
+    /**
+     * Sets the values of the segments without an animation.
+     *
+     * @param _values The value of each segment, must have the length of the segments.
+     */
+    public void setSegmentValues(@NonNull float[] _values) {
+        mDrawable.setSegmentValues(_values);
+    }
+
+    /**
+     * Animates all segments together from their current values to the given values.
+     *
+     * @param _values The value of each segment, must have the length of the segments.
+     */
+    public void setSegmentValuesAnimated(@NonNull float[] _values) {
+        mDrawable.setSegmentValuesAnimated(_values, DEFAULT_VALUE_ANIMATION_DURATION);
+    }
+
+    /**
+     * Animates all segments together from their current values to the given values.
+     *
+     * @param _values            The value of each segment, must have the length of the segments.
+     * @param _animationDuration The duration of the animation in milliseconds.
+     */
+    public void setSegmentValuesAnimated(@NonNull float[] _values, long _animationDuration) {
+        mDrawable.setSegmentValuesAnimated(_values, _animationDuration);
+    }
+
     //endregion getter/setter
     //----------------------------------
 
@@ -989,14 +1247,18 @@ public class CircleProgressView extends View {
      */
     private void parseAttributes(TypedArray a) {
         setBarWidth((int) a.getDimension(R.styleable.CircleProgressView_cpv_barWidth,
-                mBarWidth));
+                getBarWidth()));
 
         setRimWidth((int) a.getDimension(R.styleable.CircleProgressView_cpv_rimWidth,
-                mRimWidth));
+                getRimWidth()));
 
         setSpinSpeed((int) a.getFloat(R.styleable.CircleProgressView_cpv_spinSpeed,
                 mSpinSpeed));
 
+        if (a.hasValue(R.styleable.CircleProgressView_cpv_spinSpeedPerSecond)) {
+            setSpinSpeedPerSecond(a.getFloat(R.styleable.CircleProgressView_cpv_spinSpeedPerSecond, mSpinSpeedPerSecond));
+        }
+
         setSpin(a.getBoolean(R.styleable.CircleProgressView_cpv_spin,
                 mSpin));
 
@@ -1006,19 +1268,28 @@ public class CircleProgressView extends View {
         setValue(value);
         mCurrentValue = value;
 
+        int barColorStandard = mDrawable.mBarColorStandard;
+        int[] barColors;
         if (a.hasValue(R.styleable.CircleProgressView_cpv_barColor) && a.hasValue(R.styleable.CircleProgressView_cpv_barColor1) && a.hasValue(R.styleable.CircleProgressView_cpv_barColor2) && a.hasValue(R.styleable.CircleProgressView_cpv_barColor3)) {
-            mBarColors = new int[]{a.getColor(R.styleable.CircleProgressView_cpv_barColor, mBarColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor1, mBarColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor2, mBarColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor3, mBarColorStandard)};
+            barColors = new int[]{a.getColor(R.styleable.CircleProgressView_cpv_barColor, barColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor1, barColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor2, barColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor3, barColorStandard)};
 
         } else if (a.hasValue(R.styleable.CircleProgressView_cpv_barColor) && a.hasValue(R.styleable.CircleProgressView_cpv_barColor1) && a.hasValue(R.styleable.CircleProgressView_cpv_barColor2)) {
 
-            mBarColors = new int[]{a.getColor(R.styleable.CircleProgressView_cpv_barColor, mBarColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor1, mBarColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor2, mBarColorStandard)};
+            barColors = new int[]{a.getColor(R.styleable.CircleProgressView_cpv_barColor, barColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor1, barColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor2, barColorStandard)};
 
         } else if (a.hasValue(R.styleable.CircleProgressView_cpv_barColor) && a.hasValue(R.styleable.CircleProgressView_cpv_barColor1)) {
 
-            mBarColors = new int[]{a.getColor(R.styleable.CircleProgressView_cpv_barColor, mBarColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor1, mBarColorStandard)};
+            barColors = new int[]{a.getColor(R.styleable.CircleProgressView_cpv_barColor, barColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor1, barColorStandard)};
 
         } else {
-            mBarColors = new int[]{a.getColor(R.styleable.CircleProgressView_cpv_barColor, mBarColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor, mBarColorStandard)};
+            barColors = new int[]{a.getColor(R.styleable.CircleProgressView_cpv_barColor, barColorStandard), a.getColor(R.styleable.CircleProgressView_cpv_barColor, barColorStandard)};
+        }
+        setBarColor(barColors);
+        if (a.hasValue(R.styleable.CircleProgressView_cpv_barColorInterpolation)) {
+            setBarColorInterpolation(ColorInterpolation.values()[a.getInt(R.styleable.CircleProgressView_cpv_barColorInterpolation, 0)]);
+        }
+        if (a.hasValue(R.styleable.CircleProgressView_cpv_barColorHSVDirection)) {
+            setBarColorHSVDirection(ColorUtils.HSVColorDirection.values()[a.getInt(R.styleable.CircleProgressView_cpv_barColorHSVDirection, 0)]);
         }
 
         if (a.hasValue(R.styleable.CircleProgressView_cpv_barStrokeCap)) {
@@ -1028,31 +1299,31 @@ public class CircleProgressView extends View {
         if (a.hasValue(R.styleable.CircleProgressView_cpv_barStartEndLineWidth) && a.hasValue(R.styleable.CircleProgressView_cpv_barStartEndLine)) {
             setBarStartEndLine((int) a.getDimension(R.styleable.CircleProgressView_cpv_barStartEndLineWidth, 0),
                     BarStartEndLine.values()[a.getInt(R.styleable.CircleProgressView_cpv_barStartEndLine, 3)],
-                    a.getColor(R.styleable.CircleProgressView_cpv_barStartEndLineColor, mBarStartEndLineColor),
-                    a.getFloat(R.styleable.CircleProgressView_cpv_barStartEndLineSweep, mBarStartEndLineSweep));
+                    a.getColor(R.styleable.CircleProgressView_cpv_barStartEndLineColor, mDrawable.getBarStartEndLineColor()),
+                    a.getFloat(R.styleable.CircleProgressView_cpv_barStartEndLineSweep, mDrawable.getBarStartEndLineSweep()));
         }
 
-        setSpinBarColor(a.getColor(R.styleable.CircleProgressView_cpv_spinColor, mSpinnerColor));
+        setSpinBarColor(a.getColor(R.styleable.CircleProgressView_cpv_spinColor, mDrawable.getSpinBarColor()));
         setSpinningBarLength(a.getFloat(R.styleable.CircleProgressView_cpv_spinBarLength,
                 mSpinningBarLengthOrig));
 
         if (a.hasValue(R.styleable.CircleProgressView_cpv_textSize)) {
-            setTextSize((int) a.getDimension(R.styleable.CircleProgressView_cpv_textSize, mTextSize));
+            setTextSize((int) a.getDimension(R.styleable.CircleProgressView_cpv_textSize, getTextSize()));
         }
         if (a.hasValue(R.styleable.CircleProgressView_cpv_unitSize)) {
-            setUnitSize((int) a.getDimension(R.styleable.CircleProgressView_cpv_unitSize, mUnitTextSize));
+            setUnitSize((int) a.getDimension(R.styleable.CircleProgressView_cpv_unitSize, getUnitSize()));
         }
         if (a.hasValue(R.styleable.CircleProgressView_cpv_textColor)) {
-            setTextColor(a.getColor(R.styleable.CircleProgressView_cpv_textColor, mTextColor));
+            setTextColor(a.getColor(R.styleable.CircleProgressView_cpv_textColor, calcTextColor()));
         }
         if (a.hasValue(R.styleable.CircleProgressView_cpv_unitColor)) {
-            setUnitColor(a.getColor(R.styleable.CircleProgressView_cpv_unitColor, mUnitColor));
+            setUnitColor(a.getColor(R.styleable.CircleProgressView_cpv_unitColor, mDrawable.getUnitColor()));
         }
         if (a.hasValue(R.styleable.CircleProgressView_cpv_autoTextColor)) {
-            setTextColorAuto(a.getBoolean(R.styleable.CircleProgressView_cpv_autoTextColor, mIsAutoColorEnabled));
+            setTextColorAuto(a.getBoolean(R.styleable.CircleProgressView_cpv_autoTextColor, mDrawable.isTextColorAuto()));
         }
         if (a.hasValue(R.styleable.CircleProgressView_cpv_autoTextSize)) {
-            setAutoTextSize(a.getBoolean(R.styleable.CircleProgressView_cpv_autoTextSize, mIsAutoTextSize));
+            setAutoTextSize(a.getBoolean(R.styleable.CircleProgressView_cpv_autoTextSize, isAutoTextSize()));
         }
         if (a.hasValue(R.styleable.CircleProgressView_cpv_textMode)) {
             setTextMode(TextMode.values()[a.getInt(R.styleable.CircleProgressView_cpv_textMode, 0)]);
@@ -1068,18 +1339,18 @@ public class CircleProgressView extends View {
         setUnitToTextScale(a.getFloat(R.styleable.CircleProgressView_cpv_unitToTextScale, 1f));
 
         setRimColor(a.getColor(R.styleable.CircleProgressView_cpv_rimColor,
-                mRimColor));
+                getRimColor()));
 
         setFillCircleColor(a.getColor(R.styleable.CircleProgressView_cpv_fillColor,
-                mBackgroundCircleColor));
+                getFillColor()));
 
-        setOuterContourColor(a.getColor(R.styleable.CircleProgressView_cpv_outerContourColor, mOuterContourColor));
-        setOuterContourSize(a.getDimension(R.styleable.CircleProgressView_cpv_outerContourSize, mOuterContourSize));
+        setOuterContourColor(a.getColor(R.styleable.CircleProgressView_cpv_outerContourColor, getOuterContourColor()));
+        setOuterContourSize(a.getDimension(R.styleable.CircleProgressView_cpv_outerContourSize, getOuterContourSize()));
 
-        setInnerContourColor(a.getColor(R.styleable.CircleProgressView_cpv_innerContourColor, mInnerContourColor));
-        setInnerContourSize(a.getDimension(R.styleable.CircleProgressView_cpv_innerContourSize, mInnerContourSize));
+        setInnerContourColor(a.getColor(R.styleable.CircleProgressView_cpv_innerContourColor, getInnerContourColor()));
+        setInnerContourSize(a.getDimension(R.styleable.CircleProgressView_cpv_innerContourSize, getInnerContourSize()));
 
-        setMaxValue(a.getFloat(R.styleable.CircleProgressView_cpv_maxValue, mMaxValue));
+        setMaxValue(a.getFloat(R.styleable.CircleProgressView_cpv_maxValue, getMaxValue()));
 
         setMinValueAllowed(a.getFloat(R.styleable.CircleProgressView_cpv_minValueAllowed, mMinValueAllowed));
         setMaxValueAllowed(a.getFloat(R.styleable.CircleProgressView_cpv_maxValueAllowed, mMaxValueAllowed));
@@ -1088,16 +1359,17 @@ public class CircleProgressView extends View {
         setRoundToWholeNumber(a.getBoolean(R.styleable.CircleProgressView_cpv_roundToWholeNumber, mRoundToWholeNumber));
 
         setUnit(a.getString(R.styleable.CircleProgressView_cpv_unit));
-        setUnitVisible(a.getBoolean(R.styleable.CircleProgressView_cpv_showUnit, mShowUnit));
+        setUnitVisible(a.getBoolean(R.styleable.CircleProgressView_cpv_showUnit, isUnitVisible()));
 
-        setTextScale(a.getFloat(R.styleable.CircleProgressView_cpv_textScale, mTextScale));
-        setUnitScale(a.getFloat(R.styleable.CircleProgressView_cpv_unitScale, mUnitScale));
+        setTextScale(a.getFloat(R.styleable.CircleProgressView_cpv_textScale, getTextScale()));
+        setUnitScale(a.getFloat(R.styleable.CircleProgressView_cpv_unitScale, getUnitScale()));
 
         setSeekModeEnabled(a.getBoolean(R.styleable.CircleProgressView_cpv_seekMode, mSeekModeEnabled));
+        setSeekFlingEnabled(a.getBoolean(R.styleable.CircleProgressView_cpv_seekFling, mSeekFlingEnabled));
 
-        setStartAngle(a.getInt(R.styleable.CircleProgressView_cpv_startAngle, mStartAngle));
+        setStartAngle(a.getInt(R.styleable.CircleProgressView_cpv_startAngle, getStartAngle()));
 
-        setShowTextWhileSpinning(a.getBoolean(R.styleable.CircleProgressView_cpv_showTextInSpinningMode, mShowTextWhileSpinning));
+        setShowTextWhileSpinning(a.getBoolean(R.styleable.CircleProgressView_cpv_showTextInSpinningMode, isShowTextWhileSpinning()));
 
         if (a.hasValue(R.styleable.CircleProgressView_cpv_blockCount)) {
             setBlockCount(a.getInt(R.styleable.CircleProgressView_cpv_blockCount, 1));
@@ -1106,14 +1378,14 @@ public class CircleProgressView extends View {
 
         if (a.hasValue(R.styleable.CircleProgressView_cpv_textTypeface)) {
             try {
-                textTypeface = Typeface.createFromAsset(getContext().getAssets(), a.getString(R.styleable.CircleProgressView_cpv_textTypeface));
+                setTextTypeface(Typeface.createFromAsset(getContext().getAssets(), a.getString(R.styleable.CircleProgressView_cpv_textTypeface)));
             } catch (Exception exception) {
                 // error while trying to inflate typeface (is the path set correctly?)
             }
         }
         if (a.hasValue(R.styleable.CircleProgressView_cpv_unitTypeface)) {
             try {
-                unitTextTypeface = Typeface.createFromAsset(getContext().getAssets(), a.getString(R.styleable.CircleProgressView_cpv_unitTypeface));
+                setUnitTextTypeface(Typeface.createFromAsset(getContext().getAssets(), a.getString(R.styleable.CircleProgressView_cpv_unitTypeface)));
             } catch (Exception exception) {
                 // error while trying to inflate typeface (is the path set correctly?)
             }
@@ -1123,7 +1395,7 @@ public class CircleProgressView extends View {
             try {
                 String pattern = a.getString(R.styleable.CircleProgressView_cpv_decimalFormat);
                 if (pattern != null) {
-                    decimalFormat = new DecimalFormat(pattern);
+                    setDecimalFormat(new DecimalFormat(pattern));
                 }
 
             } catch (Exception exception) {
@@ -1196,238 +1468,105 @@ public class CircleProgressView extends View {
         mLayoutWidth = w;
         mLayoutHeight = h;
 
-        setupBounds();
-        setupBarPaint();
+        mDrawable.setBounds(getPaddingLeft(), getPaddingTop(), w - getPaddingRight(), h - getPaddingBottom());
+        copyDrawableBounds();
+        mCenter = new PointF(mCircleBounds.centerX(), mCircleBounds.centerY());
 
-        if (mClippingBitmap != null) {
-            mClippingBitmap = Bitmap.createScaledBitmap(mClippingBitmap, getWidth(), getHeight(), false);
-        }
+        setupClippingMask();
 
         invalidate();
     }
 
-    //----------------------------------
-    // region helper
-    private float calcTextSizeForCircle(String _text, Paint _textPaint, RectF _circleBounds) {
-
-        //get mActualTextBounds bounds
-        RectF innerCircleBounds = getInnerCircleRect(_circleBounds);
-        return calcTextSizeForRect(_text, _textPaint, innerCircleBounds);
-
-    }
-
-    private RectF getInnerCircleRect(RectF _circleBounds) {
-
-        double circleWidth = +_circleBounds.width() - (Math.max(mBarWidth, mRimWidth)) - mOuterContourSize - mInnerContourSize;
-        double width = ((circleWidth / 2d) * Math.sqrt(2d));
-        float widthDelta = (_circleBounds.width() - (float) width) / 2f;
-
-        float scaleX = 1;
-        float scaleY = 1;
-        if (isUnitVisible()) {
-            switch (mUnitPosition) {
-                case TOP:
-                case BOTTOM:
-                    scaleX = 1.1f; // scaleX square to rectangle, so the longer text with unit fits better
-                    scaleY = 0.88f;
-                    break;
-                case LEFT_TOP:
-                case RIGHT_TOP:
-                case LEFT_BOTTOM:
-                case RIGHT_BOTTOM:
-                    scaleX = 0.77f; // scaleX square to rectangle, so the longer text with unit fits better
-                    scaleY = 1.33f;
-                    break;
-            }
-
-        }
-        return new RectF(_circleBounds.left + (widthDelta * scaleX), _circleBounds.top + (widthDelta * scaleY), _circleBounds.right - (widthDelta * scaleX), _circleBounds.bottom - (widthDelta * scaleY));
-
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mIsAttached = true;
+        updateAnimationSuspended();
     }
 
-    private void triggerOnProgressChanged(float value) {
-        if (onProgressChangedListener != null && value != previousProgressChangedValue) {
-            onProgressChangedListener.onProgressChanged(value);
-            previousProgressChangedValue = value;
+    @Override
+    protected void onDetachedFromWindow() {
+        mIsAttached = false;
+        updateAnimationSuspended();
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
         }
+        super.onDetachedFromWindow();
     }
 
-    private void triggerReCalcTextSizesAndPositions() {
-        mTextLength = -1;
-        mOuterTextBounds = getInnerCircleRect(mCircleBounds);
-        invalidate();
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAnimationSuspended();
     }
 
-    private int calcTextColor(double value) {
-        if (mBarColors.length > 1) {
-            double percent = 1f / getMaxValue() * value;
-            int low = (int) Math.floor((mBarColors.length - 1) * percent);
-            int high = low + 1;
-            if (low < 0) {
-                low = 0;
-                high = 1;
-            } else if (high >= mBarColors.length) {
-                low = mBarColors.length - 2;
-                high = mBarColors.length - 1;
-            }
-            return ColorUtils.getRGBGradient(mBarColors[low], mBarColors[high], (float) (1 - (((mBarColors.length - 1) * percent) % 1d)));
-        } else if (mBarColors.length == 1) {
-            return mBarColors[0];
-        } else {
-            return Color.BLACK;
-        }
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mIsWindowVisible = visibility == VISIBLE;
+        updateAnimationSuspended();
     }
 
-    private void setTextSizeAndTextBoundsWithAutoTextSize(float unitGapWidthHalf, float unitWidth, float unitGapHeightHalf, float unitHeight, String text) {
-        RectF textRect = mOuterTextBounds;
-
-        if (mShowUnit) {
-
-            //shrink text Rect so that there is space for the unit
-            switch (mUnitPosition) {
-
-                case TOP:
-                    textRect = new RectF(mOuterTextBounds.left, mOuterTextBounds.top + unitHeight + unitGapHeightHalf, mOuterTextBounds.right, mOuterTextBounds.bottom);
-                    break;
-                case BOTTOM:
-                    textRect = new RectF(mOuterTextBounds.left, mOuterTextBounds.top, mOuterTextBounds.right, mOuterTextBounds.bottom - unitHeight - unitGapHeightHalf);
-                    break;
-                case LEFT_TOP:
-                case LEFT_BOTTOM:
-                    textRect = new RectF(mOuterTextBounds.left + unitWidth + unitGapWidthHalf, mOuterTextBounds.top, mOuterTextBounds.right, mOuterTextBounds.bottom);
-                    break;
-                case RIGHT_TOP:
-                case RIGHT_BOTTOM:
-                default:
-                    textRect = new RectF(mOuterTextBounds.left, mOuterTextBounds.top, mOuterTextBounds.right - unitWidth - unitGapWidthHalf, mOuterTextBounds.bottom);
-                    break;
-            }
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        updateAnimationSuspended();
+    }
 
+    /**
+     * Suspends the animation while the view is not attached or not visible,
+     * and resumes it as soon as the view is visible again.
+     */
+    private void updateAnimationSuspended() {
+        if (mAnimationHandler == null) {
+            return; // called during construction
         }
-
-        mTextPaint.setTextSize(calcTextSizeForRect(text, mTextPaint, textRect) * mTextScale);
-        mActualTextBounds = calcTextBounds(text, mTextPaint, textRect); // center text in text rect
+        boolean isVisible = mIsAttached && mIsWindowVisible && isShown();
+        mAnimationHandler.setSuspended(!isVisible);
     }
 
-    private void setTextSizeAndTextBoundsWithFixedTextSize(String text) {
-        mTextPaint.setTextSize(mTextSize);
-        mActualTextBounds = calcTextBounds(text, mTextPaint, mCircleBounds); //center text in circle
-    }
+    //----------------------------------
+    // region helper
 
-    private void setUnitTextBoundsAndSizeWithAutoTextSize(float unitGapWidthHalf, float unitWidth, float unitGapHeightHalf, float unitHeight) {
-        //calc the rectangle containing the unit text
-        switch (mUnitPosition) {
+    /**
+     * Rounds the value to a block or whole number if enabled and limits it to the allowed min and max value.
+     */
+    private float roundAndLimitValue(float _value) {
+        // round to block
+        if (isShowBlock() && mRoundToBlock) {
+            float value_per_block = getMaxValue() / (float) getBlockCount();
+            _value = Math.round(_value / value_per_block) * value_per_block;
 
-            case TOP: {
-                mUnitBounds = new RectF(mOuterTextBounds.left, mOuterTextBounds.top, mOuterTextBounds.right, mOuterTextBounds.top + unitHeight - unitGapHeightHalf);
-                break;
-            }
-            case BOTTOM:
-                mUnitBounds = new RectF(mOuterTextBounds.left, mOuterTextBounds.bottom - unitHeight + unitGapHeightHalf, mOuterTextBounds.right, mOuterTextBounds.bottom);
-                break;
-            case LEFT_TOP:
-            case LEFT_BOTTOM: {
-                mUnitBounds = new RectF(mOuterTextBounds.left, mOuterTextBounds.top, mOuterTextBounds.left + unitWidth - unitGapWidthHalf, mOuterTextBounds.top + unitHeight);
-                break;
-            }
-            case RIGHT_TOP:
-            case RIGHT_BOTTOM:
-            default: {
-                mUnitBounds = new RectF(mOuterTextBounds.right - unitWidth + unitGapWidthHalf, mOuterTextBounds.top, mOuterTextBounds.right, mOuterTextBounds.top + unitHeight);
-            }
-            break;
+        } else if (mRoundToWholeNumber) { // round to whole number
+            _value = Math.round(_value);
         }
 
-        mUnitTextPaint.setTextSize(calcTextSizeForRect(mUnit, mUnitTextPaint, mUnitBounds) * mUnitScale);
-        mUnitBounds = calcTextBounds(mUnit, mUnitTextPaint, mUnitBounds); // center text in rectangle and reuse it
-
-        switch (mUnitPosition) {
+        // respect min and max values allowed
+        _value = Math.max(mMinValueAllowed, _value);
 
+        if (mMaxValueAllowed >= 0)
+            _value = Math.min(mMaxValueAllowed, _value);
 
-            case LEFT_TOP:
-            case RIGHT_TOP: {
-                //move unite to top of text
-                float dy = mActualTextBounds.top - mUnitBounds.top;
-                mUnitBounds.offset(0, dy);
-                break;
-            }
-            case LEFT_BOTTOM:
-            case RIGHT_BOTTOM: {
-                //move unite to bottom of text
-                float dy = mActualTextBounds.bottom - mUnitBounds.bottom;
-                mUnitBounds.offset(0, dy);
-                break;
-            }
-        }
+        return _value;
     }
 
-    private void setUnitTextBoundsAndSizeWithFixedTextSize(float unitGapWidth, float unitGapHeight) {
-        mUnitTextPaint.setTextSize(mUnitTextSize);
-        mUnitBounds = calcTextBounds(mUnit, mUnitTextPaint, mOuterTextBounds); // center text in rectangle and reuse it
-
-        switch (mUnitPosition) {
-
-            case TOP:
-                mUnitBounds.offsetTo(mUnitBounds.left, mActualTextBounds.top - unitGapHeight - mUnitBounds.height());
-                break;
-            case BOTTOM:
-                mUnitBounds.offsetTo(mUnitBounds.left, mActualTextBounds.bottom + unitGapHeight);
-                break;
-            case LEFT_TOP:
-            case LEFT_BOTTOM:
-                mUnitBounds.offsetTo(mActualTextBounds.left - unitGapWidth - mUnitBounds.width(), mUnitBounds.top);
-                break;
-            case RIGHT_TOP:
-            case RIGHT_BOTTOM:
-            default:
-                mUnitBounds.offsetTo(mActualTextBounds.right + unitGapWidth, mUnitBounds.top);
-                break;
-        }
-
-        switch (mUnitPosition) {
-            case LEFT_TOP:
-            case RIGHT_TOP: {
-                //move unite to top of text
-                float dy = mActualTextBounds.top - mUnitBounds.top;
-                mUnitBounds.offset(0, dy);
-                break;
-            }
-            case LEFT_BOTTOM:
-            case RIGHT_BOTTOM: {
-                //move unite to bottom of text
-                float dy = mActualTextBounds.bottom - mUnitBounds.bottom;
-                mUnitBounds.offset(0, dy);
-                break;
-            }
+    private void triggerOnProgressChanged(float value) {
+        if (onProgressChangedListener != null && value != previousProgressChangedValue) {
+            onProgressChangedListener.onProgressChanged(value);
+            previousProgressChangedValue = value;
         }
     }
 
-
     /**
-     * Returns the bounding rectangle of the given _text, with the size and style defined in the _textPaint centered in the middle of the _textBounds
-     *
-     * @param _text       The text.
-     * @param _textPaint  The paint defining the text size and style.
-     * @param _textBounds The rect where the text will be centered.
-     * @return The bounding box of the text centered in the _textBounds.
+     * Invalidates the view after a value animation step, but only if the step changes the output:
+     * The arc of the bar by at least one pixel, the text or the text color.
+     * Pixel identical frames are skipped.
      */
-    private RectF calcTextBounds(String _text, Paint _textPaint, RectF _textBounds) {
-
-        Rect textBoundsTmp = new Rect();
-
-        //get current text bounds
-        _textPaint.getTextBounds(_text, 0, _text.length(), textBoundsTmp);
-        float width = textBoundsTmp.left + textBoundsTmp.width();
-        float height = textBoundsTmp.bottom + textBoundsTmp.height() * 0.93f; // the height of calcTextBounds is a bit to high, therefore  * 0.93
-        //center in circle
-        RectF textRect = new RectF();
-        textRect.left = (_textBounds.left + ((_textBounds.width() - width) / 2));
-        textRect.top = _textBounds.top + ((_textBounds.height() - height) / 2);
-        textRect.right = textRect.left + width;
-        textRect.bottom = textRect.top + height;
-
-
-        return textRect;
+    void invalidateValueChange() {
+        if (mDrawable.hasVisibleChange(mCurrentValue)) {
+            invalidate();
+        }
     }
 
     //endregion helper
@@ -1436,157 +1575,28 @@ public class CircleProgressView extends View {
     //----------------------------------
     //region Setting up stuff
 
-    /**
-     * Set the bounds of the component
-     */
-    private void setupBounds() {
-        // Width should equal to Height, find the min value to setup the circle
-        int minValue = Math.min(mLayoutWidth, mLayoutHeight);
-
-        // Calc the Offset if needed
-        int xOffset = mLayoutWidth - minValue;
-        int yOffset = mLayoutHeight - minValue;
-
-        // Add the offset
-        float paddingTop = this.getPaddingTop() + (yOffset / 2);
-        float paddingBottom = this.getPaddingBottom() + (yOffset / 2);
-        float paddingLeft = this.getPaddingLeft() + (xOffset / 2);
-        float paddingRight = this.getPaddingRight() + (xOffset / 2);
-
-        int width = getWidth(); //this.getLayoutParams().width;
-        int height = getHeight(); //this.getLayoutParams().height;
-
-        float circleWidthHalf = mBarWidth / 2f > mRimWidth / 2f + mOuterContourSize ? mBarWidth / 2f : mRimWidth / 2f + mOuterContourSize;
-
-        mCircleBounds = new RectF(paddingLeft + circleWidthHalf,
-                paddingTop + circleWidthHalf,
-                width - paddingRight - circleWidthHalf,
-                height - paddingBottom - circleWidthHalf);
-
-
-        mInnerCircleBound = new RectF(paddingLeft + (mBarWidth),
-                paddingTop + (mBarWidth),
-                width - paddingRight - (mBarWidth),
-                height - paddingBottom - (mBarWidth));
-        mOuterTextBounds = getInnerCircleRect(mCircleBounds);
-        mCircleInnerContour = new RectF(mCircleBounds.left + (mRimWidth / 2.0f) + (mInnerContourSize / 2.0f), mCircleBounds.top + (mRimWidth / 2.0f) + (mInnerContourSize / 2.0f), mCircleBounds.right - (mRimWidth / 2.0f) - (mInnerContourSize / 2.0f), mCircleBounds.bottom - (mRimWidth / 2.0f) - (mInnerContourSize / 2.0f));
-        mCircleOuterContour = new RectF(mCircleBounds.left - (mRimWidth / 2.0f) - (mOuterContourSize / 2.0f), mCircleBounds.top - (mRimWidth / 2.0f) - (mOuterContourSize / 2.0f), mCircleBounds.right + (mRimWidth / 2.0f) + (mOuterContourSize / 2.0f), mCircleBounds.bottom + (mRimWidth / 2.0f) + (mOuterContourSize / 2.0f));
-
-        mCenter = new PointF(mCircleBounds.centerX(), mCircleBounds.centerY());
-    }
-
-    private void setupBarPaint() {
-        if (mBarColors.length > 1) {
-            mBarPaint.setShader(new SweepGradient(mCircleBounds.centerX(), mCircleBounds.centerY(), mBarColors, null));
-            Matrix matrix = new Matrix();
-            mBarPaint.getShader().getLocalMatrix(matrix);
-
-            matrix.postTranslate(-mCircleBounds.centerX(), -mCircleBounds.centerY());
-            matrix.postRotate(mStartAngle);
-            matrix.postTranslate(mCircleBounds.centerX(), mCircleBounds.centerY());
-            mBarPaint.getShader().setLocalMatrix(matrix);
-            mBarPaint.setColor(mBarColors[0]);
-        } else if (mBarColors.length == 1) {
-            mBarPaint.setColor(mBarColors[0]);
-            mBarPaint.setShader(null);
-        } else {
-            mBarPaint.setColor(mBarColorStandard);
-            mBarPaint.setShader(null);
-        }
-
-        mBarPaint.setAntiAlias(true);
-        mBarPaint.setStrokeCap(mBarStrokeCap);
-        mBarPaint.setStyle(Style.STROKE);
-        mBarPaint.setStrokeWidth(mBarWidth);
-
-        if (mBarStrokeCap != Paint.Cap.BUTT) {
-            mShaderlessBarPaint = new Paint(mBarPaint);
-            mShaderlessBarPaint.setShader(null);
-            mShaderlessBarPaint.setColor(mBarColors[0]);
-        }
-    }
-
-
     /**
      * Setup all paints.
      * Call only if changes to color or size properties are not visible.
      */
     public void setupPaints() {
-        setupBarPaint();
-        setupBarSpinnerPaint();
-        setupOuterContourPaint();
-        setupInnerContourPaint();
-        setupUnitTextPaint();
-        setupTextPaint();
-        setupBackgroundCirclePaint();
-        setupRimPaint();
-        setupBarStartEndLinePaint();
-    }
-
-    private void setupBarStartEndLinePaint() {
-        mBarStartEndLinePaint.setColor(mBarStartEndLineColor);
-        mBarStartEndLinePaint.setAntiAlias(true);
-        mBarStartEndLinePaint.setStyle(Style.STROKE);
-        mBarStartEndLinePaint.setStrokeWidth(mBarStartEndLineWidth);
-    }
-
-    private void setupOuterContourPaint() {
-        mOuterContourPaint.setColor(mOuterContourColor);
-        mOuterContourPaint.setAntiAlias(true);
-        mOuterContourPaint.setStyle(Style.STROKE);
-        mOuterContourPaint.setStrokeWidth(mOuterContourSize);
-    }
-
-    private void setupInnerContourPaint() {
-        mInnerContourPaint.setColor(mInnerContourColor);
-        mInnerContourPaint.setAntiAlias(true);
-        mInnerContourPaint.setStyle(Style.STROKE);
-        mInnerContourPaint.setStrokeWidth(mInnerContourSize);
-    }
-
-    private void setupUnitTextPaint() {
-        mUnitTextPaint.setStyle(Style.FILL);
-        mUnitTextPaint.setAntiAlias(true);
-        if (unitTextTypeface != null) {
-            mUnitTextPaint.setTypeface(unitTextTypeface);
-        }
+        mDrawable.setupPaints();
     }
 
-    private void setupTextPaint() {
-        mTextPaint.setSubpixelText(true);
-        mTextPaint.setLinearText(true);
-        mTextPaint.setTypeface(Typeface.MONOSPACE);
-        mTextPaint.setColor(mTextColor);
-        mTextPaint.setStyle(Style.FILL);
-        mTextPaint.setAntiAlias(true);
-        mTextPaint.setTextSize(mTextSize);
-        if (textTypeface != null) {
-            mTextPaint.setTypeface(textTypeface);
-        } else {
-            mTextPaint.setTypeface(Typeface.MONOSPACE);
+    /**
+     * Creates the ALPHA_8 mask from the original clipping bitmap in the current size of the view.
+     */
+    private void setupClippingMask() {
+        // the old mask may still be referenced by a display list, so it is not recycled
+        mClippingMask = null;
+        if (mClippingBitmap == null || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        Bitmap scaledBitmap = Bitmap.createScaledBitmap(mClippingBitmap, getWidth(), getHeight(), true);
+        mClippingMask = scaledBitmap.extractAlpha();
+        if (scaledBitmap != mClippingBitmap) {
+            scaledBitmap.recycle();
         }
-
-    }
-
-    private void setupBackgroundCirclePaint() {
-        mBackgroundCirclePaint.setColor(mBackgroundCircleColor);
-        mBackgroundCirclePaint.setAntiAlias(true);
-        mBackgroundCirclePaint.setStyle(Style.FILL);
-    }
-
-    private void setupRimPaint() {
-        mRimPaint.setColor(mRimColor);
-        mRimPaint.setAntiAlias(true);
-        mRimPaint.setStyle(Style.STROKE);
-        mRimPaint.setStrokeWidth(mRimWidth);
-    }
-
-    private void setupBarSpinnerPaint() {
-        mBarSpinnerPaint.setAntiAlias(true);
-        mBarSpinnerPaint.setStrokeCap(mSpinnerStrokeCap);
-        mBarSpinnerPaint.setStyle(Style.STROKE);
-        mBarSpinnerPaint.setStrokeWidth(mBarWidth);
-        mBarSpinnerPaint.setColor(mSpinnerColor);
     }
 
     //endregion Setting up stuff
@@ -1595,249 +1605,38 @@ public class CircleProgressView extends View {
     //----------------------------------
     //region draw all the things
 
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
-
-        if (DEBUG) {
-            drawDebug(canvas);
-        }
-
-        float degrees = (360f / mMaxValue * mCurrentValue);
-
-        // Draw the background circle
-        if (mBackgroundCircleColor != 0) {
-            canvas.drawArc(mInnerCircleBound, 360, 360, false, mBackgroundCirclePaint);
-        }
-        //Draw the rim
-        if (mRimWidth > 0) {
-            if (!mShowBlock) {
-                canvas.drawArc(mCircleBounds, 360, 360, false, mRimPaint);
-            } else {
-                drawBlocks(canvas, mCircleBounds, mStartAngle, 360, false, mRimPaint);
-            }
-        }
-
-        //Draw outer contour
-        if (mOuterContourSize > 0) {
-            canvas.drawArc(mCircleOuterContour, 360, 360, false, mOuterContourPaint);
-        }
-
-        //Draw outer contour
-        if (mInnerContourSize > 0) {
-            canvas.drawArc(mCircleInnerContour, 360, 360, false, mInnerContourPaint);
-        }
-
-        //Draw spinner
-        if (mAnimationState == AnimationState.SPINNING || mAnimationState == AnimationState.END_SPINNING) {
-            drawSpinner(canvas);
-            if (mShowTextWhileSpinning) {
-                drawTextWithUnit(canvas);
-            }
-
-        } else if (mAnimationState == AnimationState.END_SPINNING_START_ANIMATING) {
-            //draw spinning arc
-            drawSpinner(canvas);
-
-            if (mDrawBarWhileSpinning) {
-                drawBar(canvas, degrees);
-                drawTextWithUnit(canvas);
-            } else if (mShowTextWhileSpinning) {
-                drawTextWithUnit(canvas);
-            }
-
-        } else {
-            drawBar(canvas, degrees);
-            drawTextWithUnit(canvas);
-        }
-
-        if (mClippingBitmap != null) {
-            canvas.drawBitmap(mClippingBitmap, 0, 0, mMaskPaint);
-        }
-
-        if (mBarStartEndLineWidth > 0 && mBarStartEndLine != BarStartEndLine.NONE) {
-            drawStartEndLine(canvas, degrees);
-        }
-
-    }
-
-    private void drawStartEndLine(Canvas _canvas, float _degrees) {
-        if (_degrees == 0f)
-            return;
-
-        float startAngle = mDirection == Direction.CW ? mStartAngle : mStartAngle - _degrees;
-
-        startAngle -= mBarStartEndLineSweep / 2f;
-
-        if (mBarStartEndLine == BarStartEndLine.START || mBarStartEndLine == BarStartEndLine.BOTH) {
-            _canvas.drawArc(mCircleBounds, startAngle, mBarStartEndLineSweep, false, mBarStartEndLinePaint);
-        }
-
-        if (mBarStartEndLine == BarStartEndLine.END || mBarStartEndLine == BarStartEndLine.BOTH) {
-            _canvas.drawArc(mCircleBounds, startAngle + _degrees, mBarStartEndLineSweep, false, mBarStartEndLinePaint);
-        }
-    }
-
-    private void drawDebug(Canvas canvas) {
-        Paint innerRectPaint = new Paint();
-        innerRectPaint.setColor(Color.YELLOW);
-        canvas.drawRect(mCircleBounds, innerRectPaint);
-    }
-
-    private void drawBlocks(Canvas _canvas, RectF circleBounds, float startAngle, float _degrees, boolean userCenter, Paint paint) {
-        float tmpDegree = 0.0f;
-        while (tmpDegree < _degrees) {
-            _canvas.drawArc(circleBounds, startAngle + tmpDegree, Math.min(mBlockScaleDegree, _degrees - tmpDegree), userCenter, paint);
-            tmpDegree += mBlockDegree;
-        }
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mDrawable || super.verifyDrawable(who);
     }
 
-    private void drawSpinner(Canvas canvas) {
-        if (mSpinningBarLengthCurrent < 0) {
-            mSpinningBarLengthCurrent = 1;
-        }
-
-        float startAngle;
-        if (mDirection == Direction.CW) {
-            startAngle = mStartAngle + mCurrentSpinnerDegreeValue - mSpinningBarLengthCurrent;
-        } else {
-            startAngle = mStartAngle - mCurrentSpinnerDegreeValue;
-        }
-
-        canvas.drawArc(mCircleBounds, startAngle, mSpinningBarLengthCurrent, false,
-                mBarSpinnerPaint);
-    }
-
-    private void drawTextWithUnit(Canvas canvas) {
-
-        final float relativeGapHeight;
-        final float relativeGapWidth;
-        final float relativeHeight;
-        final float relativeWidth;
-
-        switch (mUnitPosition) {
-            case TOP:
-            case BOTTOM:
-                relativeGapWidth = 0.05f; //gap size between text and unit
-                relativeGapHeight = 0.025f; //gap size between text and unit
-                relativeHeight = 0.25f * mRelativeUniteSize;
-                relativeWidth = 0.4f * mRelativeUniteSize;
-                break;
-            default:
-            case LEFT_TOP:
-            case RIGHT_TOP:
-            case LEFT_BOTTOM:
-            case RIGHT_BOTTOM:
-                relativeGapWidth = 0.05f; //gap size between text and unit
-                relativeGapHeight = 0.025f; //gap size between text and unit
-                relativeHeight = 0.55f * mRelativeUniteSize;
-                relativeWidth = 0.3f * mRelativeUniteSize;
-                break;
-        }
-
-        float unitGapWidthHalf = mOuterTextBounds.width() * relativeGapWidth / 2f;
-        float unitWidth = (mOuterTextBounds.width() * relativeWidth);
-
-        float unitGapHeightHalf = mOuterTextBounds.height() * relativeGapHeight / 2f;
-        float unitHeight = (mOuterTextBounds.height() * relativeHeight);
-
-
-        boolean update = false;
-        //Draw Text
-        if (mIsAutoColorEnabled) {
-            mTextPaint.setColor(calcTextColor(mCurrentValue));
-        }
-
-        //set text
-        String text;
-        switch (mTextMode) {
-            case TEXT:
-            default:
-                text = mText != null ? mText : "";
-                break;
-            case PERCENT:
-                text = decimalFormat.format(100f / mMaxValue * mCurrentValue);
-                break;
-            case VALUE:
-                text = decimalFormat.format(mCurrentValue);
-                break;
-        }
-
-
-        // only re-calc position and size if string length changed
-        if (mTextLength != text.length()) {
-
-            update = true;
-            mTextLength = text.length();
-            if (mTextLength == 1) {
-                mOuterTextBounds = getInnerCircleRect(mCircleBounds);
-                mOuterTextBounds = new RectF(mOuterTextBounds.left + (mOuterTextBounds.width() * 0.1f), mOuterTextBounds.top, mOuterTextBounds.right - (mOuterTextBounds.width() * 0.1f), mOuterTextBounds.bottom);
-            } else {
-                mOuterTextBounds = getInnerCircleRect(mCircleBounds);
-            }
-            if (mIsAutoTextSize) {
-                setTextSizeAndTextBoundsWithAutoTextSize(unitGapWidthHalf, unitWidth, unitGapHeightHalf, unitHeight, text);
-
-            } else {
-                setTextSizeAndTextBoundsWithFixedTextSize(text);
-            }
-        }
-
-        if (DEBUG) {
-            Paint rectPaint = new Paint();
-            rectPaint.setColor(Color.MAGENTA);
-            canvas.drawRect(mOuterTextBounds, rectPaint);
-            rectPaint.setColor(Color.GREEN);
-            canvas.drawRect(mActualTextBounds, rectPaint);
-
-        }
-
-        canvas.drawText(text, mActualTextBounds.left - (mTextPaint.getTextSize() * 0.02f), mActualTextBounds.bottom, mTextPaint);
-
-        if (mShowUnit) {
-
-            if (mIsAutoColorEnabled) {
-                mUnitTextPaint.setColor(calcTextColor(mCurrentValue));
-            }
-            if (update) {
-                //calc unit text position
-                if (mIsAutoTextSize) {
-                    setUnitTextBoundsAndSizeWithAutoTextSize(unitGapWidthHalf, unitWidth, unitGapHeightHalf, unitHeight);
-
-                } else {
-                    setUnitTextBoundsAndSizeWithFixedTextSize(unitGapWidthHalf * 2f, unitGapHeightHalf * 2f);
-                }
-            }
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
 
-            if (DEBUG) {
-                Paint rectPaint = new Paint();
-                rectPaint.setColor(Color.RED);
-                canvas.drawRect(mUnitBounds, rectPaint);
-            }
+        mDrawable.setAnimationFrame(mCurrentValue, mAnimationState, mCurrentSpinnerDegreeValue,
+                mSpinningBarLengthCurrent, mDrawBarWhileSpinning);
+        mDrawable.draw(canvas);
+        // the text bounds are calculated while drawing
+        copyDrawableBounds();
 
-            canvas.drawText(mUnit, mUnitBounds.left - (mUnitTextPaint.getTextSize() * 0.02f), mUnitBounds.bottom, mUnitTextPaint);
+        if (mClippingMask != null) {
+            canvas.drawBitmap(mClippingMask, 0, 0, mMaskPaint);
         }
     }
 
-    private void drawBar(Canvas _canvas, float _degrees) {
-        float startAngle = mDirection == Direction.CW ? mStartAngle : mStartAngle - _degrees;
-        if (!mShowBlock) {
-
-            if (mBarStrokeCap != Paint.Cap.BUTT && _degrees > 0 && mBarColors.length > 1) {
-                if (_degrees > 180) {
-                    _canvas.drawArc(mCircleBounds, startAngle, _degrees / 2, false, mBarPaint);
-                    _canvas.drawArc(mCircleBounds, startAngle, 1, false, mShaderlessBarPaint);
-                    _canvas.drawArc(mCircleBounds, startAngle + (_degrees / 2), _degrees / 2, false, mBarPaint);
-                } else {
-                    _canvas.drawArc(mCircleBounds, startAngle, _degrees, false, mBarPaint);
-                    _canvas.drawArc(mCircleBounds, startAngle, 1, false, mShaderlessBarPaint);
-                }
-
-            } else {
-                _canvas.drawArc(mCircleBounds, startAngle, _degrees, false, mBarPaint);
-            }
-        } else {
-            drawBlocks(_canvas, mCircleBounds, startAngle, _degrees, false, mBarPaint);
-        }
+    /**
+     * Copies the bounds calculated by the drawable into the protected rectangles of the view, so subclasses can
+     * read them. Changes of subclasses to the copies do not affect the drawable.
+     */
+    private void copyDrawableBounds() {
+        mCircleBounds.set(mDrawable.mCircleBounds);
+        mInnerCircleBound.set(mDrawable.mInnerCircleBound);
+        mOuterTextBounds.set(mDrawable.mOuterTextBounds);
+        mActualTextBounds.set(mDrawable.mActualTextBounds);
+        mUnitBounds.set(mDrawable.mUnitBounds);
+        mCircleOuterContour.set(mDrawable.mCircleOuterContour);
+        mCircleInnerContour.set(mDrawable.mCircleInnerContour);
     }
 
     //endregion draw
@@ -1877,17 +1676,30 @@ public class CircleProgressView extends View {
             case MotionEvent.ACTION_DOWN:
             case MotionEvent.ACTION_UP: {
                 mTouchEventCount = 0;
-                PointF point = new PointF(event.getX(), event.getY());
-                float angle = getRotationAngleForPointFromStart(point);
-                setValueAnimated(mMaxValue / 360f * angle, 800);
+                mTouchPoint.set(event.getX(), event.getY());
+                if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                    startVelocityTracking(event);
+                } else if (startFling(event)) {
+                    return true;
+                }
+                // a pending seek move must not overwrite the animation
+                mAnimationHandler.cancelSeekValue();
+                float angle = getRotationAngleForPointFromStart(mTouchPoint);
+                setValueAnimated(getMaxValue() / 360f * angle, 800);
                 return true;
             }
             case MotionEvent.ACTION_MOVE: {
+                if (mSeekFlingEnabled && mVelocityTracker != null) {
+                    mVelocityTracker.addMovement(event);
+                }
                 mTouchEventCount++;
                 if (mTouchEventCount > 5) { //touch/move guard
-                    PointF point = new PointF(event.getX(), event.getY());
-                    float angle = getRotationAngleForPointFromStart(point);
-                    setValue(mMaxValue / 360f * angle);
+                    // the value depends only on the position, so the latest sample of a batched event is enough.
+                    // All moves within a frame are applied as one value on the next frame.
+                    mTouchPoint.set(event.getX(), event.getY());
+                    float angle = getRotationAngleForPointFromStart(mTouchPoint);
+                    mSeekValue = getMaxValue() / 360f * angle;
+                    mAnimationHandler.requestSeekValue();
                     return true;
                 } else {
                     return false;
@@ -1896,6 +1708,11 @@ public class CircleProgressView extends View {
             }
             case MotionEvent.ACTION_CANCEL:
                 mTouchEventCount = 0;
+                // the gesture was taken over, e.g. by a scrolling parent, its last move must not be applied
+                mAnimationHandler.cancelSeekValue();
+                if (mVelocityTracker != null) {
+                    mVelocityTracker.clear();
+                }
                 return false;
         }
 
@@ -1903,10 +1720,68 @@ public class CircleProgressView extends View {
         return super.onTouchEvent(event);
     }
 
+    private void startVelocityTracking(MotionEvent _event) {
+        if (!mSeekFlingEnabled) {
+            return;
+        }
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        } else {
+            mVelocityTracker.clear();
+        }
+        mVelocityTracker.addMovement(_event);
+    }
+
+    /**
+     * Starts a fling if the ring was flicked fast enough. The velocity is the tangential part of
+     * the touch velocity at the position of the up event, see {@link #mTouchPoint}.
+     *
+     * @param _upEvent The up event.
+     * @return true if a fling was started.
+     */
+    private boolean startFling(MotionEvent _upEvent) {
+        if (!mSeekFlingEnabled || mVelocityTracker == null) {
+            return false;
+        }
+        mVelocityTracker.addMovement(_upEvent);
+        mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+        float velocityX = mVelocityTracker.getXVelocity();
+        float velocityY = mVelocityTracker.getYVelocity();
+        mVelocityTracker.clear();
+
+        float dx = mTouchPoint.x - mCenter.x;
+        float dy = mTouchPoint.y - mCenter.y;
+        float radiusSquared = dx * dx + dy * dy;
+        if (radiusSquared == 0) {
+            return false;
+        }
+        // cross product of radius and velocity, positive if rotating clockwise
+        float cross = dx * velocityY - dy * velocityX;
+        if (Math.abs(cross) / (float) Math.sqrt(radiusSquared) < mMinFlingVelocity) {
+            return false;
+        }
+        float degreesPerSecond = (float) Math.toDegrees(cross / radiusSquared);
+        if (getDirection() == Direction.CCW) {
+            degreesPerSecond = -degreesPerSecond;
+        }
+        float valuePerSecond = getMaxValue() / 360f * degreesPerSecond;
+
+        // the fling continues from the last move, which may not be applied yet
+        mAnimationHandler.flushSeekValue();
+
+        // an exponential decay with the velocity v and the time constant T stops after v * T
+        float valueTo = mCurrentValue + valuePerSecond * mFlingTimeConstant / 1000f;
+        valueTo = roundAndLimitValue(Math.max(0, Math.min(getMaxValue(), valueTo)));
+        mAnimationHandler.sendValueMessage(AnimationMsg.START_FLING, mCurrentValue, valueTo);
+        triggerOnProgressChanged(valueTo);
+        return true;
+    }
+
     private float getRotationAngleForPointFromStart(PointF point) {
-        long angle = Math.round(calcRotationAngleInDegrees(mCenter, point));
-        float fromStart = mDirection == Direction.CW ? angle - mStartAngle : mStartAngle - angle;
-        return normalizeAngle(fromStart);
+        int angle = Math.round(calcRotationAngleInDegreesFast(point.x - mCenter.x, point.y - mCenter.y));
+        int startAngle = getStartAngle();
+        float fromStart = getDirection() == Direction.CW ? angle - startAngle : startAngle - angle;
+        return CircleProgressDrawable.normalizeAngle(fromStart);
     }
 
 
@@ -0,0 +1,16 @@
+package at.grabner.circleprogress;
+
+public enum ColorInterpolation {
+    /**
+     * Interpolates the red, green and blue channels linearly.
+     */
+    RGB,
+    /**
+     * Interpolates hue, saturation and value, see {@link ColorUtils.HSVColorDirection} for the direction of the hue.
+     */
+    HSV,
+    /**
+     * Interpolates in the perceptual OKLab color space, gradients keep an even brightness without gray dips.
+     */
+    OKLAB
+}
@@ -3,6 +3,8 @@ package at.grabner.circleprogress;
 import android.graphics.Color;
 import androidx.annotation.ColorInt;
 
+import java.util.Arrays;
+
 /**
  * Created by Jakob on 05.09.2015.
  */
@@ -10,11 +12,48 @@ public class ColorUtils {
 
     public static int getRGBGradient(@ColorInt int startColor, @ColorInt int endColor, float proportion) {
 
-        int[] rgb = new int[3];
-        rgb[0] = interpolate(Color.red(startColor), Color.red(endColor), proportion);
-        rgb[1] = interpolate(Color.green(startColor), Color.green(endColor), proportion);
-        rgb[2] = interpolate(Color.blue(startColor), Color.blue(endColor), proportion);
-        return Color.argb(255, rgb[0], rgb[1], rgb[2]);
+        int red = interpolate(Color.red(startColor), Color.red(endColor), proportion);
+        int green = interpolate(Color.green(startColor), Color.green(endColor), proportion);
+        int blue = interpolate(Color.blue(startColor), Color.blue(endColor), proportion);
+        return Color.argb(255, red, green, blue);
+    }
+
+    /**
+     * Fills the array with a gradient through all colors, evenly spaced like the colors of a {@link android.graphics.SweepGradient}
+     * without positions. Used as lookup table, so the color at a position is a single array access.
+     * Does not allocate.
+     *
+     * @param colors The colors of the gradient. A single color fills the array with that color, no colors with black.
+     * @param result The array to fill, e.g. 256 entries.
+     */
+    public static void fillRGBGradient(@ColorInt int[] colors, @ColorInt int[] result) {
+        fillGradient(colors, result, ColorInterpolation.RGB, HSVColorDirection.Shortest);
+    }
+
+    /**
+     * Bakes a gradient through all colors into the array, see {@link #fillRGBGradient(int[], int[])}.
+     * The color space conversions run once per entry here, sampling the result costs a single array access.
+     *
+     * @param _interpolation The color space used to interpolate between the colors.
+     * @param _direction     The hue direction, only used for {@link ColorInterpolation#HSV}.
+     */
+    public static void fillGradient(@ColorInt int[] colors, @ColorInt int[] result,
+                                    ColorInterpolation _interpolation, HSVColorDirection _direction) {
+        if (colors.length == 0) {
+            Arrays.fill(result, Color.BLACK);
+            return;
+        }
+        if (colors.length == 1) {
+            Arrays.fill(result, colors[0]);
+            return;
+        }
+        int segments = colors.length - 1;
+        int last = result.length - 1;
+        for (int i = 0; i <= last; i++) {
+            float position = last > 0 ? segments * (i / (float) last) : 0f;
+            int low = Math.min((int) position, segments - 1);
+            result[i] = getGradient(colors[low], colors[low + 1], 1f - (position - low), _interpolation, _direction);
+        }
     }
 
 
@@ -23,49 +62,188 @@ public class ColorUtils {
     }
 
 
-// not finished
-//    public static @ColorInt int getHSVGradient(@ColorInt int startColor,@ColorInt int endColor, float proportion, HSVColorDirection _direction) {
-//        float[] startHSV = new float[3];
-//        float[] endHSV = new float[3];
-//        Color.colorToHSV(startColor, startHSV);
-//        Color.colorToHSV(endColor, endHSV);
-//
-//        float brightness = (startHSV[2] + endHSV[2]) / 2;
-//        float saturation = (startHSV[1] + endHSV[1]) / 2;
-//
-//        // determine clockwise and counter-clockwise distance between hues
-//        float distCCW = (startHSV[0] >= endHSV[0]) ?  360 - startHSV[0] -   endHSV[0] : startHSV[0] -   endHSV[0];
-//        float distCW =  (startHSV[0] >= endHSV[0]) ?  endHSV[0] - startHSV[0] :   360 - endHSV[0] - startHSV[0];
-//        float hue = 0;
-//        switch (_direction) {
-//
-//            case ClockWise:
-//                hue = startHSV[0] + (distCW * proportion) % 360;
-//                break;
-//            case CounterClockWise:
-//                hue = startHSV[0] + (distCCW * proportion) % 360;
-//                break;
-//            case Shortest:
-//                break;
-//            case Longest:
-//                break;
-//        }
-//
-//        // interpolate h
-//        float hue = (float) ((distCW <= distCCW) ? startHSV[0] + (distCW * proportion) : startHSV[0] - (distCCW * proportion));
-//        //reuse array
-//        endHSV[0] = hue;
-//        endHSV[1] = saturation;
-//        endHSV[2] = brightness;
-//        return Color.HSVToColor(endHSV);
-//
-//    }
-//
-//    enum HSVColorDirection{
-//        ClockWise,
-//        CounterClockWise,
-//        Shortest,
-//        Longest
-//    }
+    /**
+     * Interpolates hue, saturation, value and alpha. Like {@link #getRGBGradient(int, int, float)},
+     * proportion is the weight of the startColor: 1 returns the startColor, 0 the endColor. Does not allocate.
+     *
+     * @param _direction The direction the hue moves on the color wheel.
+     */
+    public static @ColorInt int getHSVGradient(@ColorInt int startColor, @ColorInt int endColor, float proportion, HSVColorDirection _direction) {
+        float t = 1 - proportion;
+        int r1 = Color.red(startColor), g1 = Color.green(startColor), b1 = Color.blue(startColor);
+        int r2 = Color.red(endColor), g2 = Color.green(endColor), b2 = Color.blue(endColor);
+
+        float saturation1 = calcSaturation(r1, g1, b1);
+        float saturation2 = calcSaturation(r2, g2, b2);
+        float hue1 = calcHue(r1, g1, b1);
+        float hue2 = calcHue(r2, g2, b2);
+        // the hue of gray is undefined, keep the hue of the other color
+        if (saturation1 == 0) {
+            hue1 = hue2;
+        } else if (saturation2 == 0) {
+            hue2 = hue1;
+        }
+
+        // determine clockwise (increasing hue) and counter-clockwise distance between hues
+        float distCW = ((hue2 - hue1) % 360 + 360) % 360;
+        float distCCW = distCW == 0 ? 0 : 360 - distCW;
+        boolean clockWise;
+        switch (_direction) {
+            case ClockWise:
+                clockWise = true;
+                break;
+            case CounterClockWise:
+                clockWise = false;
+                break;
+            case Longest:
+                clockWise = distCW >= distCCW;
+                break;
+            case Shortest:
+            default:
+                clockWise = distCW <= distCCW;
+                break;
+        }
+        float hue = clockWise ? hue1 + distCW * t : hue1 - distCCW * t;
+        hue = (hue % 360 + 360) % 360;
+
+        float saturation = saturation1 + (saturation2 - saturation1) * t;
+        float value1 = Math.max(r1, Math.max(g1, b1)) / 255f;
+        float value2 = Math.max(r2, Math.max(g2, b2)) / 255f;
+        float value = value1 + (value2 - value1) * t;
+        int alpha = Math.round(Color.alpha(startColor) + (Color.alpha(endColor) - Color.alpha(startColor)) * t);
+        return hsvToColor(alpha, hue, saturation, value);
+    }
+
+    /**
+     * Interpolates in the OKLab color space, alpha is interpolated linearly. Like {@link #getRGBGradient(int, int, float)},
+     * proportion is the weight of the startColor: 1 returns the startColor, 0 the endColor. Does not allocate.
+     */
+    public static @ColorInt int getOKLabGradient(@ColorInt int startColor, @ColorInt int endColor, float proportion) {
+        double t = 1 - proportion;
+        double r1 = toLinear(Color.red(startColor)), g1 = toLinear(Color.green(startColor)), b1 = toLinear(Color.blue(startColor));
+        double r2 = toLinear(Color.red(endColor)), g2 = toLinear(Color.green(endColor)), b2 = toLinear(Color.blue(endColor));
+
+        // OKLab is a linear transformation of the cube roots of the LMS cone responses,
+        // so interpolating the cube roots is the same as interpolating L, a and b
+        double l1 = Math.cbrt(0.4122214708 * r1 + 0.5363325363 * g1 + 0.0514459929 * b1);
+        double m1 = Math.cbrt(0.2119034982 * r1 + 0.6806995451 * g1 + 0.1073969566 * b1);
+        double s1 = Math.cbrt(0.0883024619 * r1 + 0.2817188376 * g1 + 0.6299787005 * b1);
+        double l2 = Math.cbrt(0.4122214708 * r2 + 0.5363325363 * g2 + 0.0514459929 * b2);
+        double m2 = Math.cbrt(0.2119034982 * r2 + 0.6806995451 * g2 + 0.1073969566 * b2);
+        double s2 = Math.cbrt(0.0883024619 * r2 + 0.2817188376 * g2 + 0.6299787005 * b2);
+
+        double l = l1 + (l2 - l1) * t;
+        double m = m1 + (m2 - m1) * t;
+        double s = s1 + (s2 - s1) * t;
+        l = l * l * l;
+        m = m * m * m;
+        s = s * s * s;
+
+        int red = toSRGB(4.0767416621 * l - 3.3077115913 * m + 0.2309699292 * s);
+        int green = toSRGB(-1.2684380046 * l + 2.6097574011 * m - 0.3413193965 * s);
+        int blue = toSRGB(-0.0041960863 * l - 0.7034186147 * m + 1.7076147010 * s);
+        int alpha = (int) Math.round(Color.alpha(startColor) + (Color.alpha(endColor) - Color.alpha(startColor)) * t);
+        return Color.argb(alpha, red, green, blue);
+    }
+
+    /**
+     * @param _direction The hue direction, only used for {@link ColorInterpolation#HSV}.
+     * @see #getRGBGradient(int, int, float)
+     */
+    public static @ColorInt int getGradient(@ColorInt int startColor, @ColorInt int endColor, float proportion,
+                                            ColorInterpolation _interpolation, HSVColorDirection _direction) {
+        switch (_interpolation) {
+            case HSV:
+                return getHSVGradient(startColor, endColor, proportion, _direction);
+            case OKLAB:
+                return getOKLabGradient(startColor, endColor, proportion);
+            case RGB:
+            default:
+                return getRGBGradient(startColor, endColor, proportion);
+        }
+    }
+
+    private static float calcHue(int r, int g, int b) {
+        int max = Math.max(r, Math.max(g, b));
+        int delta = max - Math.min(r, Math.min(g, b));
+        if (delta == 0) {
+            return 0;
+        }
+        float hue;
+        if (max == r) {
+            hue = (g - b) / (float) delta;
+        } else if (max == g) {
+            hue = 2 + (b - r) / (float) delta;
+        } else {
+            hue = 4 + (r - g) / (float) delta;
+        }
+        hue *= 60;
+        return hue < 0 ? hue + 360 : hue;
+    }
+
+    private static float calcSaturation(int r, int g, int b) {
+        int max = Math.max(r, Math.max(g, b));
+        return max == 0 ? 0 : (max - Math.min(r, Math.min(g, b))) / (float) max;
+    }
+
+    private static int hsvToColor(int alpha, float hue, float saturation, float value) {
+        float sector = hue / 60f;
+        int i = ((int) sector) % 6;
+        float f = sector - (int) sector;
+        float p = value * (1 - saturation);
+        float q = value * (1 - saturation * f);
+        float t = value * (1 - saturation * (1 - f));
+        float r, g, b;
+        switch (i) {
+            case 0:
+                r = value; g = t; b = p;
+                break;
+            case 1:
+                r = q; g = value; b = p;
+                break;
+            case 2:
+                r = p; g = value; b = t;
+                break;
+            case 3:
+                r = p; g = q; b = value;
+                break;
+            case 4:
+                r = t; g = p; b = value;
+                break;
+            default:
+                r = value; g = p; b = q;
+                break;
+        }
+        return Color.argb(alpha, Math.round(r * 255), Math.round(g * 255), Math.round(b * 255));
+    }
+
+    private static double toLinear(int channel) {
+        double c = channel / 255d;
+        return c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+    }
+
+    private static int toSRGB(double linear) {
+        double c = linear <= 0.0031308 ? linear * 12.92 : 1.055 * Math.pow(linear, 1 / 2.4) - 0.055;
+        return (int) Math.round(Math.max(0, Math.min(1, c)) * 255);
+    }
+
+    public enum HSVColorDirection {
+        /**
+         * The hue increases, e.g. red, yellow, green.
+         */
+        ClockWise,
+        /**
+         * The hue decreases, e.g. red, magenta, blue.
+         */
+        CounterClockWise,
+        /**
+         * The shorter way around the color wheel.
+         */
+        Shortest,
+        /**
+         * The longer way around the color wheel.
+         */
+        Longest
+    }
 
 }
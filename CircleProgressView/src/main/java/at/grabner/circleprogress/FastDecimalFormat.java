@@ -0,0 +1,210 @@
+package at.grabner.circleprogress;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats numbers like a {@link DecimalFormat} into a reusable char buffer, without allocations.
+ * <p/>
+ * Supports the common patterns: minimum integer digits, fixed or optional fraction digits
+ * (up to 9), grouping, multiplier, prefixes and suffixes, with HALF_EVEN or HALF_UP rounding.
+ * All other patterns (e.g. scientific notation) fall back to {@link DecimalFormat#format(double)}.
+ * <p/>
+ * The settings of the DecimalFormat are read once in the constructor,
+ * later changes of the DecimalFormat are not reflected.
+ */
+final class FastDecimalFormat {
+
+    private static final int MAX_FRACTION_DIGITS = 9;
+    // larger values lose precision in a long, they are formatted by the DecimalFormat
+    private static final double MAX_SCALED_VALUE = 1e15;
+    // 2^27 + 1, splits a double into two halves with 26 significant bits
+    private static final double SPLITTER = 134217729.0;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+    };
+
+    private final DecimalFormat mDecimalFormat;
+    private final boolean mIsSupported;
+
+    private char[] mPositivePrefix;
+    private char[] mPositiveSuffix;
+    private char[] mNegativePrefix;
+    private char[] mNegativeSuffix;
+    private int mMultiplier;
+    private int mMinIntegerDigits;
+    private int mMinFractionDigits;
+    private int mMaxFractionDigits;
+    private boolean mDecimalSeparatorAlwaysShown;
+    private int mGroupingSize;
+    private char mZeroDigit;
+    private char mDecimalSeparator;
+    private char mGroupingSeparator;
+    private boolean mRoundHalfEven;
+
+    private char[] mBuffer = new char[32];
+    // integer digits in reverse order
+    private final char[] mDigits = new char[20];
+
+    FastDecimalFormat(DecimalFormat _decimalFormat) {
+        mDecimalFormat = _decimalFormat;
+        mIsSupported = readSettings(_decimalFormat);
+    }
+
+    private boolean readSettings(DecimalFormat _decimalFormat) {
+        if (_decimalFormat.toPattern().indexOf('E') >= 0) {
+            return false; // scientific notation
+        }
+        RoundingMode roundingMode = _decimalFormat.getRoundingMode();
+        if (roundingMode != RoundingMode.HALF_EVEN && roundingMode != RoundingMode.HALF_UP) {
+            return false;
+        }
+        mRoundHalfEven = roundingMode == RoundingMode.HALF_EVEN;
+        mMaxFractionDigits = _decimalFormat.getMaximumFractionDigits();
+        mMinFractionDigits = _decimalFormat.getMinimumFractionDigits();
+        if (mMaxFractionDigits > MAX_FRACTION_DIGITS) {
+            return false;
+        }
+        mMinIntegerDigits = _decimalFormat.getMinimumIntegerDigits();
+        if (mMinIntegerDigits > mDigits.length || _decimalFormat.getMaximumIntegerDigits() < mDigits.length) {
+            return false;
+        }
+        mMultiplier = _decimalFormat.getMultiplier();
+        mDecimalSeparatorAlwaysShown = _decimalFormat.isDecimalSeparatorAlwaysShown();
+        mGroupingSize = _decimalFormat.isGroupingUsed() ? _decimalFormat.getGroupingSize() : 0;
+
+        DecimalFormatSymbols symbols = _decimalFormat.getDecimalFormatSymbols();
+        mZeroDigit = symbols.getZeroDigit();
+        mDecimalSeparator = symbols.getDecimalSeparator();
+        mGroupingSeparator = symbols.getGroupingSeparator();
+
+        mPositivePrefix = _decimalFormat.getPositivePrefix().toCharArray();
+        mPositiveSuffix = _decimalFormat.getPositiveSuffix().toCharArray();
+        mNegativePrefix = _decimalFormat.getNegativePrefix().toCharArray();
+        mNegativeSuffix = _decimalFormat.getNegativeSuffix().toCharArray();
+
+        // prefix + grouped integer digits + separator + fraction digits + suffix
+        int maxLength = Math.max(mPositivePrefix.length, mNegativePrefix.length)
+                + mDigits.length * 2
+                + 1 + mMaxFractionDigits
+                + Math.max(mPositiveSuffix.length, mNegativeSuffix.length);
+        mBuffer = new char[maxLength];
+        return true;
+    }
+
+    /**
+     * @return The DecimalFormat which defines the format.
+     */
+    DecimalFormat getDecimalFormat() {
+        return mDecimalFormat;
+    }
+
+    /**
+     * @return The buffer containing the last formatted number, see {@link #format(double)}.
+     */
+    char[] getChars() {
+        return mBuffer;
+    }
+
+    /**
+     * Formats the number into the buffer returned by {@link #getChars()}.
+     *
+     * @param _number The number to format.
+     * @return The number of chars written.
+     */
+    int format(double _number) {
+        if (!mIsSupported || Double.isNaN(_number) || Double.isInfinite(_number)) {
+            return formatWithDecimalFormat(_number);
+        }
+        // like DecimalFormat, the multiplier is applied first and the rounded product is formatted
+        double multiplied = _number * mMultiplier;
+        // like DecimalFormat, -0 is formatted with a minus sign
+        boolean isNegative = multiplied < 0.0 || (multiplied == 0.0 && 1 / multiplied < 0.0);
+        double number = Math.abs(multiplied);
+        double factor = POWERS_OF_TEN[mMaxFractionDigits];
+        double scaled = number * factor;
+        if (scaled >= MAX_SCALED_VALUE || Double.isInfinite(multiplied)) {
+            return formatWithDecimalFormat(_number);
+        }
+        long units = (long) Math.floor(scaled);
+        double fraction = scaled - units;
+        if (fraction > 0.5) {
+            units++;
+        } else if (fraction == 0.5) {
+            // the rounded product looks like a tie, decide with the rounding error of the product
+            // like DecimalFormat, which rounds the exact binary value
+            double error = calcProductError(number, factor, scaled);
+            if (error > 0.0 || (error == 0.0 && (!mRoundHalfEven || (units & 1) == 1))) {
+                units++;
+            }
+        }
+
+        long integerPart = units / POWERS_OF_TEN[mMaxFractionDigits];
+        long fractionPart = units % POWERS_OF_TEN[mMaxFractionDigits];
+
+        // remove optional trailing zeros of the fraction
+        int fractionDigits = mMaxFractionDigits;
+        while (fractionDigits > mMinFractionDigits && fractionPart % 10 == 0) {
+            fractionPart /= 10;
+            fractionDigits--;
+        }
+
+        int integerDigits = 0;
+        while (integerPart > 0) {
+            mDigits[integerDigits++] = (char) (mZeroDigit + (integerPart % 10));
+            integerPart /= 10;
+        }
+        while (integerDigits < mMinIntegerDigits) {
+            mDigits[integerDigits++] = mZeroDigit;
+        }
+        if (integerDigits == 0 && fractionDigits == 0) {
+            mDigits[integerDigits++] = mZeroDigit;
+        }
+
+        int length = append(isNegative ? mNegativePrefix : mPositivePrefix, 0);
+        for (int i = integerDigits - 1; i >= 0; i--) {
+            mBuffer[length++] = mDigits[i];
+            if (mGroupingSize > 0 && i > 0 && i % mGroupingSize == 0) {
+                mBuffer[length++] = mGroupingSeparator;
+            }
+        }
+        if (fractionDigits > 0 || mDecimalSeparatorAlwaysShown) {
+            mBuffer[length++] = mDecimalSeparator;
+        }
+        for (int i = fractionDigits - 1; i >= 0; i--) {
+            mBuffer[length + i] = (char) (mZeroDigit + (fractionPart % 10));
+            fractionPart /= 10;
+        }
+        length += fractionDigits;
+        return append(isNegative ? mNegativeSuffix : mPositiveSuffix, length);
+    }
+
+    /**
+     * @return The exact rounding error of the product _a * _b (Dekker's algorithm),
+     * so that _a * _b == _product + error holds exactly.
+     */
+    private static double calcProductError(double _a, double _b, double _product) {
+        double c = SPLITTER * _a;
+        double aHigh = c - (c - _a);
+        double aLow = _a - aHigh;
+        c = SPLITTER * _b;
+        double bHigh = c - (c - _b);
+        double bLow = _b - bHigh;
+        return ((aHigh * bHigh - _product) + aHigh * bLow + aLow * bHigh) + aLow * bLow;
+    }
+
+    private int append(char[] _chars, int _offset) {
+        System.arraycopy(_chars, 0, mBuffer, _offset, _chars.length);
+        return _offset + _chars.length;
+    }
+
+    private int formatWithDecimalFormat(double _number) {
+        String text = mDecimalFormat.format(_number);
+        if (text.length() > mBuffer.length) {
+            mBuffer = new char[text.length()];
+        }
+        text.getChars(0, text.length(), mBuffer, 0);
+        return text.length();
+    }
+}
@@ -0,0 +1,62 @@
+package at.grabner.circleprogress;
+
+import android.animation.TimeInterpolator;
+
+import java.util.WeakHashMap;
+
+/**
+ * Samples a {@link TimeInterpolator} once into a table and interpolates linearly between the samples,
+ * so an interpolation costs two array reads instead of e.g. trigonometry or pow.
+ * <p/>
+ * Tables are shared by all users of the same interpolator instance, see {@link #of(TimeInterpolator)}.
+ * The interpolator must be stateless, later changes are not reflected.
+ */
+final class LookupTableInterpolator implements TimeInterpolator {
+
+    private static final int SAMPLE_COUNT = 256;
+
+    // tables by source interpolator, weak keys so unused interpolators can be collected
+    private static final WeakHashMap<TimeInterpolator, LookupTableInterpolator> sCache =
+            new WeakHashMap<TimeInterpolator, LookupTableInterpolator>();
+
+    // SAMPLE_COUNT + 1 values, from t = 0 to t = 1
+    private final float[] mTable = new float[SAMPLE_COUNT + 1];
+
+    private LookupTableInterpolator(TimeInterpolator _source) {
+        for (int i = 0; i <= SAMPLE_COUNT; i++) {
+            mTable[i] = _source.getInterpolation((float) i / SAMPLE_COUNT);
+        }
+    }
+
+    /**
+     * @param _source The interpolator to sample.
+     * @return The lookup table interpolator of the source, created on the first call for the instance.
+     */
+    static TimeInterpolator of(TimeInterpolator _source) {
+        if (_source instanceof LookupTableInterpolator) {
+            return _source;
+        }
+        synchronized (sCache) {
+            LookupTableInterpolator interpolator = sCache.get(_source);
+            if (interpolator == null) {
+                interpolator = new LookupTableInterpolator(_source);
+                sCache.put(_source, interpolator);
+            }
+            return interpolator;
+        }
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input <= 0f) {
+            return mTable[0];
+        }
+        if (input >= 1f) {
+            return mTable[SAMPLE_COUNT];
+        }
+        float position = input * SAMPLE_COUNT;
+        int index = (int) position;
+        float fraction = position - index;
+        return mTable[index] + (mTable[index + 1] - mTable[index]) * fraction;
+    }
+}
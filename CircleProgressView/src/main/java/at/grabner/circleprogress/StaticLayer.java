@@ -0,0 +1,128 @@
+package at.grabner.circleprogress;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+/**
+ * Records drawing operations which only change on size or style changes once and replays them on every frame.
+ * <p/>
+ * Uses a {@link RenderNode} on hardware accelerated canvases on API 29+, a {@link Picture} on
+ * software canvases and on API 23+ (hardware canvases support pictures since API 23),
+ * and a bitmap otherwise.
+ */
+final class StaticLayer {
+
+    interface Renderer {
+
+        /**
+         * Draws the content of the static layer.
+         *
+         * @param _canvas The recording canvas.
+         */
+        void drawStaticLayer(Canvas _canvas);
+    }
+
+    private final Renderer mRenderer;
+    private int mWidth;
+    private int mHeight;
+
+    private RenderNode mRenderNode;
+    private boolean mRenderNodeValid = false;
+    private Picture mPicture;
+    private boolean mPictureValid = false;
+    private Bitmap mBitmap;
+    private boolean mBitmapValid = false;
+
+    StaticLayer(Renderer _renderer) {
+        mRenderer = _renderer;
+    }
+
+    /**
+     * Discards the recorded content, it is recorded again on the next draw call.
+     */
+    void invalidate() {
+        mRenderNodeValid = false;
+        mPictureValid = false;
+        mBitmapValid = false;
+    }
+
+    /**
+     * Draws the static layer, records it first if necessary.
+     *
+     * @param _canvas The canvas to draw on.
+     * @param _width  The width of the layer.
+     * @param _height The height of the layer.
+     */
+    void draw(Canvas _canvas, int _width, int _height) {
+        if (_width <= 0 || _height <= 0) {
+            return;
+        }
+        if (_width != mWidth || _height != mHeight) {
+            mWidth = _width;
+            mHeight = _height;
+            invalidate();
+        }
+
+        if (!_canvas.isHardwareAccelerated()) {
+            drawPicture(_canvas);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            drawRenderNode(_canvas);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            drawPicture(_canvas);
+        } else {
+            drawBitmap(_canvas);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.Q)
+    private void drawRenderNode(Canvas _canvas) {
+        if (mRenderNode == null) {
+            mRenderNode = new RenderNode("CircleProgressViewStaticLayer");
+        }
+        if (!mRenderNodeValid || !mRenderNode.hasDisplayList()) {
+            mRenderNode.setPosition(0, 0, mWidth, mHeight);
+            RecordingCanvas recordingCanvas = mRenderNode.beginRecording();
+            try {
+                mRenderer.drawStaticLayer(recordingCanvas);
+            } finally {
+                mRenderNode.endRecording();
+            }
+            mRenderNodeValid = true;
+        }
+        _canvas.drawRenderNode(mRenderNode);
+    }
+
+    private void drawPicture(Canvas _canvas) {
+        if (mPicture == null) {
+            mPicture = new Picture();
+        }
+        if (!mPictureValid) {
+            Canvas recordingCanvas = mPicture.beginRecording(mWidth, mHeight);
+            mRenderer.drawStaticLayer(recordingCanvas);
+            mPicture.endRecording();
+            mPictureValid = true;
+        }
+        _canvas.drawPicture(mPicture);
+    }
+
+    private void drawBitmap(Canvas _canvas) {
+        if (mBitmap == null || mBitmap.getWidth() != mWidth || mBitmap.getHeight() != mHeight) {
+            if (mBitmap != null) {
+                mBitmap.recycle();
+            }
+            mBitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+            mBitmapValid = false;
+        }
+        if (!mBitmapValid) {
+            mBitmap.eraseColor(0);
+            mRenderer.drawStaticLayer(new Canvas(mBitmap));
+            mBitmapValid = true;
+        }
+        _canvas.drawBitmap(mBitmap, 0, 0, null);
+    }
+}
@@ -0,0 +1,207 @@
+package at.grabner.circleprogress;
+
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process wide, bounded LRU cache of auto text size results.
+ * <p/>
+ * Measuring the text is the expensive part of the auto text size. The text size is measured with all digits
+ * replaced by the widest digit of the typeface, see {@link #getWidestDigit(Paint)}, so texts with the same digit
+ * pattern, e.g. all values from 10 to 99 of an animation, get the same result and every digit fits.
+ * The key covers everything the measurement depends on: typeface and paint flags, which also determine the widest
+ * digit, digit pattern, rect size and scale.
+ * <p/>
+ * Thread safe, lookups of cached results do not allocate.
+ */
+final class TextSizeCache {
+
+    private static final int MAX_ENTRIES = 64;
+
+    private static final LinkedHashMap<Key, Float> sCache = new LinkedHashMap<Key, Float>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Float> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    // reused for lookups, guarded by sCache
+    private static final Key sProbeKey = new Key();
+
+    private static final int MAX_WIDEST_DIGIT_ENTRIES = 16;
+    private static final char[] DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
+
+    private static final LinkedHashMap<DigitKey, Character> sWidestDigits = new LinkedHashMap<DigitKey, Character>(MAX_WIDEST_DIGIT_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DigitKey, Character> eldest) {
+            return size() > MAX_WIDEST_DIGIT_ENTRIES;
+        }
+    };
+    // reused for lookups, guarded by sWidestDigits
+    private static final DigitKey sDigitProbeKey = new DigitKey();
+
+    private TextSizeCache() {
+    }
+
+    /**
+     * @return The char used for the digit pattern of the key, all digits are mapped to '0'.
+     */
+    static char normalizeDigit(char _char) {
+        return isDigit(_char) ? '0' : _char;
+    }
+
+    static boolean isDigit(char _char) {
+        return _char >= '0' && _char <= '9';
+    }
+
+    /**
+     * Some fonts have digits of different widths, e.g. a narrow '1' or a wide '4', a text size measured with
+     * the widest digit fits all of them. The digit is measured once per typeface and paint flags.
+     *
+     * @return The widest digit with the typeface and the flags of the paint.
+     */
+    static char getWidestDigit(Paint _paint) {
+        synchronized (sWidestDigits) {
+            sDigitProbeKey.set(_paint);
+            Character digit = sWidestDigits.get(sDigitProbeKey);
+            if (digit != null) {
+                return digit;
+            }
+        }
+        char widestDigit = DIGITS[0];
+        float maxWidth = -1;
+        for (int i = 0; i < DIGITS.length; i++) {
+            float width = _paint.measureText(DIGITS, i, 1);
+            if (width > maxWidth) {
+                maxWidth = width;
+                widestDigit = DIGITS[i];
+            }
+        }
+        DigitKey key = new DigitKey();
+        key.set(_paint);
+        synchronized (sWidestDigits) {
+            sWidestDigits.put(key, widestDigit);
+        }
+        return widestDigit;
+    }
+
+    /**
+     * Looks up a cached text size.
+     *
+     * @return The text size or -1 if no result was found.
+     */
+    static float get(Paint _paint, char[] _text, int _length, RectF _rect, float _scale) {
+        synchronized (sCache) {
+            sProbeKey.set(_paint, _text, _length, _rect, _scale);
+            Float textSize = sCache.get(sProbeKey);
+            sProbeKey.mText = null; // do not retain the callers buffer
+            return textSize != null ? textSize : -1;
+        }
+    }
+
+    /**
+     * Stores a text size, see {@link #get(Paint, char[], int, RectF, float)}.
+     */
+    static void put(Paint _paint, char[] _text, int _length, RectF _rect, float _scale, float _textSize) {
+        Key key = new Key();
+        key.set(_paint, _text, _length, _rect, _scale);
+        key.mText = Arrays.copyOf(_text, _length);
+        synchronized (sCache) {
+            sCache.put(key, _textSize);
+        }
+    }
+
+    private static final class DigitKey {
+        private Typeface mTypeface;
+        private int mPaintFlags;
+
+        void set(Paint _paint) {
+            mTypeface = _paint.getTypeface();
+            mPaintFlags = _paint.getFlags();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (mTypeface != null ? mTypeface.hashCode() : 0) + mPaintFlags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DigitKey)) {
+                return false;
+            }
+            DigitKey other = (DigitKey) o;
+            return mPaintFlags == other.mPaintFlags
+                    && (mTypeface == null ? other.mTypeface == null : mTypeface.equals(other.mTypeface));
+        }
+    }
+
+    private static final class Key {
+        private Typeface mTypeface;
+        private int mPaintFlags;
+        private char[] mText;
+        private int mLength;
+        private float mWidth;
+        private float mHeight;
+        private float mScale;
+        private int mHash;
+
+        void set(Paint _paint, char[] _text, int _length, RectF _rect, float _scale) {
+            mTypeface = _paint.getTypeface();
+            mPaintFlags = _paint.getFlags();
+            mText = _text;
+            mLength = _length;
+            mWidth = _rect.width();
+            mHeight = _rect.height();
+            mScale = _scale;
+
+            int hash = mTypeface != null ? mTypeface.hashCode() : 0;
+            hash = 31 * hash + mPaintFlags;
+            for (int i = 0; i < _length; i++) {
+                hash = 31 * hash + normalizeDigit(_text[i]);
+            }
+            hash = 31 * hash + Float.floatToIntBits(mWidth);
+            hash = 31 * hash + Float.floatToIntBits(mHeight);
+            hash = 31 * hash + Float.floatToIntBits(mScale);
+            mHash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            if (mHash != other.mHash
+                    || mLength != other.mLength
+                    || mPaintFlags != other.mPaintFlags
+                    || Float.compare(mWidth, other.mWidth) != 0
+                    || Float.compare(mHeight, other.mHeight) != 0
+                    || Float.compare(mScale, other.mScale) != 0
+                    || (mTypeface == null ? other.mTypeface != null : !mTypeface.equals(other.mTypeface))) {
+                return false;
+            }
+            for (int i = 0; i < mLength; i++) {
+                if (normalizeDigit(mText[i]) != normalizeDigit(other.mText[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package at.grabner.circleprogress;
+
+/**
+ * Bounded FIFO queue of animated values with their animation durations, stored in primitive ring buffers.
+ * If the queue is full, adding a value drops the oldest one.
+ */
+final class ValueQueue {
+
+    private final float[] mValues;
+    private final long[] mDurations;
+    // index of the oldest value
+    private int mHead = 0;
+    private int mSize = 0;
+
+    ValueQueue(int _capacity) {
+        if (_capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0!");
+        }
+        mValues = new float[_capacity];
+        mDurations = new long[_capacity];
+    }
+
+    int getCapacity() {
+        return mValues.length;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Adds a value at the end of the queue. Drops the oldest value if the queue is full.
+     */
+    void add(float _value, long _duration) {
+        if (mSize == mValues.length) {
+            poll();
+        }
+        int tail = (mHead + mSize) % mValues.length;
+        mValues[tail] = _value;
+        mDurations[tail] = _duration;
+        mSize++;
+    }
+
+    /**
+     * @return The duration of the oldest value, call before {@link #poll()}.
+     */
+    long peekDuration() {
+        if (mSize == 0) {
+            throw new IllegalStateException("queue is empty!");
+        }
+        return mDurations[mHead];
+    }
+
+    /**
+     * Removes the oldest value.
+     *
+     * @return The oldest value.
+     */
+    float poll() {
+        if (mSize == 0) {
+            throw new IllegalStateException("queue is empty!");
+        }
+        float value = mValues[mHead];
+        mHead = (mHead + 1) % mValues.length;
+        mSize--;
+        return value;
+    }
+
+    void clear() {
+        mHead = 0;
+        mSize = 0;
+    }
+}
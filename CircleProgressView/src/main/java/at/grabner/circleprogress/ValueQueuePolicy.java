@@ -0,0 +1,18 @@
+package at.grabner.circleprogress;
+
+public enum ValueQueuePolicy {
+    /**
+     * A new animated value replaces the running animation immediately.
+     */
+    LATEST_WINS,
+    /**
+     * Animated values are queued while an animation is running and played one after the other.
+     * If the queue is full, the oldest queued value is dropped.
+     */
+    SEQUENTIAL,
+    /**
+     * The first animated value of a burst is applied immediately, all values within the coalesce window
+     * are merged into the latest one, which is applied when the window has passed.
+     */
+    COALESCE
+}
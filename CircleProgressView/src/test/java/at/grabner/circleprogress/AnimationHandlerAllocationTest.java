@@ -0,0 +1,100 @@
+package at.grabner.circleprogress;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that value updates and animation ticks do not allocate: setValue / setValueAnimated send a message,
+ * the main looper dispatches it to {@link AnimationHandler#handleMessage(Message)} and the frame clock calls
+ * {@link AnimationHandler#doAnimationFrame(long)}.
+ * <p/>
+ * The looper of the test environment allocates for each message itself, so the same number of messages
+ * is sent through a plain handler as baseline. The value path must not allocate more than the baseline.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class AnimationHandlerAllocationTest {
+
+    private static final int WARM_UP_ITERATIONS = 5000;
+    private static final int ITERATIONS = 10000;
+
+    private CircleProgressView mCircleView;
+    private Handler mBaselineHandler;
+    private long mFrameTime;
+
+    @Before
+    public void setUp() {
+        mCircleView = new CircleProgressView(RuntimeEnvironment.application, null);
+        mBaselineHandler = new Handler(Looper.getMainLooper()) {
+            @Override
+            public void handleMessage(Message msg) {
+            }
+        };
+        mFrameTime = SystemClock.uptimeMillis();
+    }
+
+    @Test
+    public void valueUpdatesAndTicksDoNotAllocate() {
+        runBaseline(WARM_UP_ITERATIONS);
+        runValueUpdates(WARM_UP_ITERATIONS);
+
+        long baselineBytes = allocatedBytes();
+        runBaseline(ITERATIONS);
+        baselineBytes = allocatedBytes() - baselineBytes;
+
+        long valueBytes = allocatedBytes();
+        runValueUpdates(ITERATIONS);
+        valueBytes = allocatedBytes() - valueBytes;
+
+        assertTrue("value updates and ticks allocated " + (valueBytes - baselineBytes) + " bytes in "
+                + ITERATIONS + " iterations", valueBytes <= baselineBytes);
+    }
+
+    /**
+     * Sends and dispatches two messages and runs two frames per iteration, like runValueUpdates.
+     */
+    private void runBaseline(int _iterations) {
+        for (int i = 0; i < _iterations; i++) {
+            mBaselineHandler.sendMessage(mBaselineHandler.obtainMessage(0, i, i));
+            ShadowLooper.runUiThreadTasks();
+            mBaselineHandler.sendMessage(mBaselineHandler.obtainMessage(0, i, i));
+            ShadowLooper.runUiThreadTasks();
+            mFrameTime += 32;
+        }
+    }
+
+    private void runValueUpdates(int _iterations) {
+        AnimationHandler handler = mCircleView.mAnimationHandler;
+        for (int i = 0; i < _iterations; i++) {
+            // an animation is started and interrupted by a seek like value update
+            mCircleView.setValueAnimated(i % 100);
+            ShadowLooper.runUiThreadTasks();
+            mFrameTime += 16;
+            handler.doAnimationFrame(mFrameTime);
+
+            mCircleView.setValue((i * 7) % 100);
+            ShadowLooper.runUiThreadTasks();
+            mFrameTime += 16;
+            handler.doAnimationFrame(mFrameTime);
+        }
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
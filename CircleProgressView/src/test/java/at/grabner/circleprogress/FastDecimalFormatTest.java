@@ -0,0 +1,78 @@
+package at.grabner.circleprogress;
+
+import org.junit.Test;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares {@link FastDecimalFormat} with {@link DecimalFormat} for the supported patterns.
+ */
+public class FastDecimalFormatTest {
+
+    private static final String[] PATTERNS = {
+            "0", "0.0", "0.00", "0.###", "000", "#,##0.##", "0%", "0.0%", "#,##0.0#%", "'~'0.0' km'", "0.000000000"
+    };
+    private static final RoundingMode[] ROUNDING_MODES = {RoundingMode.HALF_EVEN, RoundingMode.HALF_UP};
+
+    @Test
+    public void formatsLikeDecimalFormat() {
+        Random random = new Random(42);
+        double[] numbers = new double[20000];
+        for (int i = 0; i < numbers.length; i++) {
+            switch (i % 4) {
+                case 0: // values with few decimal digits, many of them close to a tie
+                    numbers[i] = Math.round(random.nextDouble() * 1000000) / 1000.0;
+                    break;
+                case 1: // binary fractions, exact ties
+                    numbers[i] = (random.nextInt(200000) - 100000) / 64.0;
+                    break;
+                case 2:
+                    numbers[i] = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4);
+                    break;
+                default: // percent values like 38.865
+                    numbers[i] = random.nextInt(100000) / 1000.0 + 0.005;
+                    break;
+            }
+        }
+        for (String pattern : PATTERNS) {
+            for (RoundingMode roundingMode : ROUNDING_MODES) {
+                DecimalFormat decimalFormat = new DecimalFormat(pattern, DecimalFormatSymbols.getInstance(Locale.US));
+                decimalFormat.setRoundingMode(roundingMode);
+                FastDecimalFormat fastDecimalFormat = new FastDecimalFormat(decimalFormat);
+                for (double number : numbers) {
+                    assertFormat(decimalFormat, fastDecimalFormat, number);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void formatsPercentTiesLikeDecimalFormat() {
+        DecimalFormat decimalFormat = new DecimalFormat("0%", DecimalFormatSymbols.getInstance(Locale.US));
+        FastDecimalFormat fastDecimalFormat = new FastDecimalFormat(decimalFormat);
+        assertFormat(decimalFormat, fastDecimalFormat, 38.865);
+        assertFormat(decimalFormat, fastDecimalFormat, 3.835);
+    }
+
+    @Test
+    public void formatsSpecialValuesLikeDecimalFormat() {
+        DecimalFormat decimalFormat = new DecimalFormat("0.0", DecimalFormatSymbols.getInstance(Locale.US));
+        FastDecimalFormat fastDecimalFormat = new FastDecimalFormat(decimalFormat);
+        double[] numbers = {0.0, -0.0, -0.01, 0.05, 0.15, 0.25, 1e15, -1e16, Double.NaN, Double.POSITIVE_INFINITY, Double.MIN_VALUE};
+        for (double number : numbers) {
+            assertFormat(decimalFormat, fastDecimalFormat, number);
+        }
+    }
+
+    private static void assertFormat(DecimalFormat _decimalFormat, FastDecimalFormat _fastDecimalFormat, double _number) {
+        int length = _fastDecimalFormat.format(_number);
+        assertEquals(_decimalFormat.toPattern() + " " + _decimalFormat.getRoundingMode() + " " + _number,
+                _decimalFormat.format(_number), new String(_fastDecimalFormat.getChars(), 0, length));
+    }
+}